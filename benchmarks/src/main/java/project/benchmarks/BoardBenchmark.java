@@ -0,0 +1,58 @@
+package project.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import project.engine.Board;
+import project.engine.Engine;
+import project.engine.Piece;
+
+/**
+ * Board operations on a board in the middle of a game.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+	@Param({"40", "256", "1024"})
+	int size;
+
+	Board board;
+	Piece piece;
+
+	@Setup
+	public void setup(){
+		Engine engine = Boards.played(size);
+		board = engine.getBoard();
+		piece = engine.getPiece();
+	}
+
+	@Benchmark
+	public byte[][] placeOnBoard(){
+		return board.placeOnBoard(piece);
+	}
+
+	@Benchmark
+	public Board makeCurrentBoardArr(){
+		// locking the same piece again leaves the board as is
+		board.makeCurrentBoardArr(piece);
+		return board;
+	}
+
+	@Benchmark
+	public int getScore(){
+		return board.getScore();
+	}
+}
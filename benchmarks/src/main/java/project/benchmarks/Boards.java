@@ -0,0 +1,34 @@
+package project.benchmarks;
+
+import project.engine.Action;
+import project.engine.Engine;
+
+/**
+ * Shared setup for the benchmarks.
+ */
+final class Boards {
+	// pieces locked before a board counts as played
+	static final int PLAYED_LOCKS = 20;
+	// seed of the played games, so every run benchmarks the same boards
+	static final long SEED = 4100;
+
+	private Boards(){}
+
+	/**
+	 * Plays a game on a square board until it has locked a number of pieces, so the board isn't empty.
+	 * Lost games are thrown away and started over with the next seed.
+	 * @param size: Columns and rows making up the board.
+	 * @return An engine in the middle of a game.
+	 */
+	static Engine played(int size){
+		for(long seed = SEED; ; seed++){
+			Engine engine = new Engine(size, size, seed);
+			int locks = 0;
+			while(!engine.isLost()){
+				if((engine.step(Action.TICK) & Engine.LOCKED) != 0 && ++locks == PLAYED_LOCKS){
+					return engine;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,47 @@
+package project.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import project.engine.Action;
+import project.engine.Engine;
+
+/**
+ * Full game ticks, starting a new game whenever one is lost.
+ * The cost of setting up new games is included, spread over the ticks of a game.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EngineBenchmark {
+	@Param({"40", "256", "1024"})
+	int size;
+
+	Engine engine;
+	long seed = Boards.SEED;
+
+	@Setup
+	public void setup(){
+		engine = new Engine(size, size, seed);
+	}
+
+	@Benchmark
+	public int tick(){
+		if(engine.isLost()){
+			engine = new Engine(size, size, ++seed);
+		}
+		return engine.step(Action.TICK);
+	}
+}
@@ -0,0 +1,80 @@
+package project.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import project.HighScoreHandler;
+import project.ScoreLog;
+
+/**
+ * High score file access, against scratch files in the temp folder.
+ * Compares the old single line file with the record log replacing it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HighScoreBenchmark {
+	File file;
+	HighScoreHandler highScoreHandler;
+	File logFile;
+	ScoreLog scoreLog;
+	int score = 0;
+
+	@Setup
+	public void setup() throws IOException {
+		file = File.createTempFile("highscores", ".txt");
+		Files.writeString(file.toPath(), "90,80,70,60,50,40,30,20,10,0");
+		highScoreHandler = new HighScoreHandler(file);
+		logFile = File.createTempFile("scores", ".log");
+		Files.delete(logFile.toPath());
+		scoreLog = new ScoreLog(logFile.toPath());
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(file.toPath());
+		scoreLog.close();
+		Files.deleteIfExists(logFile.toPath());
+	}
+
+	@Benchmark
+	public File write(){
+		// cycle through scores, so some make the list and some don't
+		score = (score + 7) % 100;
+		highScoreHandler.write(score);
+		return file;
+	}
+
+	@Benchmark
+	public List<Integer> read(){
+		return highScoreHandler.read();
+	}
+
+	@Benchmark
+	public ScoreLog logWrite(){
+		score = (score + 7) % 100;
+		scoreLog.write(score);
+		return scoreLog;
+	}
+
+	@Benchmark
+	public List<Integer> logRead(){
+		return scoreLog.read();
+	}
+}
@@ -1,7 +1,9 @@
 open module todolist {
+	requires java.management;
 	requires javafx.base;
 	requires javafx.controls;
 	requires javafx.fxml;
 	requires javafx.graphics;
 	requires javafx.media;
-}
\ No newline at end of file
+	requires jdk.jfr;
+}
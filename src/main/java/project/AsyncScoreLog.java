@@ -0,0 +1,200 @@
+package project;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The async score log keeps every file access of a score log on one background thread, so the UI never waits on the disk.
+ * Reads are answered from a cached view of the best scores, which includes submitted scores right away.
+ * Scores submitted while the disk is busy are written as one batch and synced once,
+ * after which the futures of the whole batch complete.
+ */
+public class AsyncScoreLog implements FileIO, AutoCloseable {
+    private final int capacity;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "score-log");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // opened on the background thread
+    private final CompletableFuture<ScoreLog> log;
+    private final Queue<Submission> submissions = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+    // best scores known, best first, replaced rather than changed
+    private volatile List<ScoreRecord> cached = List.of();
+
+    /**
+     * A submitted record, and the future completed once it is on disk.
+     */
+    private record Submission(ScoreRecord record, CompletableFuture<List<ScoreRecord>> written) {}
+
+    /**
+     * Starts opening the log in the background, keeping the ScoreLog.DEFAULT_CAPACITY best scores.
+     * @param path: The log file.
+     */
+    public AsyncScoreLog(Path path){
+        this(path, ScoreLog.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Starts opening the log in the background.
+     * @param path: The log file.
+     * @param capacity: The amount of best scores kept.
+     */
+    public AsyncScoreLog(Path path, int capacity){
+        if(path == null){
+            throw new IllegalArgumentException("path cannot be null.");
+        }
+        if(capacity <= 0){
+            throw new IllegalArgumentException("capacity has to be positive.");
+        }
+        this.capacity = capacity;
+        this.log = CompletableFuture.supplyAsync(() -> new ScoreLog(path, capacity), this.executor);
+        this.log.thenAccept(opened -> this.cache(opened.getTop()));
+    }
+
+    /**
+     * Merges records into the cached view.
+     * @param records: Records to be merged, in any order.
+     */
+    private synchronized void cache(Collection<ScoreRecord> records){
+        List<ScoreRecord> merged = new ArrayList<>(this.cached);
+        for(ScoreRecord record : records){
+            if(!merged.contains(record)){
+                merged.add(record);
+            }
+        }
+        merged.sort(ScoreRecord.RANKING);
+        this.cached = List.copyOf(merged.subList(0, Math.min(merged.size(), this.capacity)));
+    }
+
+    /**
+     * @return The best scores, best first, from the cached view.
+     */
+    @Override
+    public List<Integer> read() {
+        List<ScoreRecord> top = this.cached;
+        List<Integer> scores = new ArrayList<>(top.size());
+        for(ScoreRecord record : top){
+            scores.add(record.score());
+        }
+        return scores;
+    }
+
+    /**
+     * Submits a score under the name of the user running the game, without waiting for it to be written.
+     * @param score: Score to be submitted.
+     */
+    @Override
+    public void write(int score) {
+        this.submit(ScoreLog.defaultName(), score);
+    }
+
+    /**
+     * Submits a score, stamped with the current time. The cached view includes it once this returns.
+     * @param name: Name of the player, at most ScoreLog.MAX_NAME_LENGTH characters.
+     * @param score: Score to be submitted.
+     * @return Completes on the background thread with the best records once the score is synced to disk,
+     * or exceptionally if the score did not reach the disk, e.g. when the log could not be opened.
+     */
+    public CompletableFuture<List<ScoreRecord>> submit(String name, int score) {
+        if(name == null || name.length() > ScoreLog.MAX_NAME_LENGTH){
+            throw new IllegalArgumentException("name cannot be null or longer than " + ScoreLog.MAX_NAME_LENGTH + " characters.");
+        }
+        ScoreRecord record = new ScoreRecord(name, System.currentTimeMillis(), score);
+        this.cache(List.of(record));
+        CompletableFuture<List<ScoreRecord>> written = new CompletableFuture<>();
+        this.submissions.add(new Submission(record, written));
+        if(this.drainScheduled.compareAndSet(false, true)){
+            this.log.thenAcceptAsync(this::drain, this.executor);
+        }
+        return written;
+    }
+
+    /**
+     * Writes every submission queued so far as one batch, and syncs it.
+     * @param log: The opened log.
+     */
+    private void drain(ScoreLog log){
+        // submissions from here on schedule another drain
+        this.drainScheduled.set(false);
+        List<Submission> batch = new ArrayList<>();
+        for(Submission submission = this.submissions.poll(); submission != null; submission = this.submissions.poll()){
+            batch.add(submission);
+        }
+        if(batch.isEmpty()){
+            return;
+        }
+        // submissions which did not reach the file fail, the rest wait for the sync
+        List<Submission> appended = new ArrayList<>(batch.size());
+        for(Submission submission : batch){
+            try{
+                log.append(submission.record());
+                appended.add(submission);
+            }catch(IOException e){
+                System.out.println("Could not write to score log: " + e);
+                submission.written().completeExceptionally(e);
+            }
+        }
+        if(appended.isEmpty()){
+            return;
+        }
+        try{
+            log.sync();
+            List<ScoreRecord> top = log.getTop();
+            for(Submission submission : appended){
+                submission.written().complete(top);
+            }
+        }catch(IOException e){
+            System.out.println("Could not sync score log: " + e);
+            for(Submission submission : appended){
+                submission.written().completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Writes what has been submitted, closes the log and stops the background thread, waiting a few seconds at most.
+     */
+    @Override
+    public void close() throws IOException {
+        this.log.thenAcceptAsync(opened -> {
+            this.drain(opened);
+            try{
+                opened.close();
+            }catch(IOException e){
+                System.out.println("Could not close score log: " + e);
+            }
+        }, this.executor);
+        this.executor.shutdown();
+        try{
+            this.executor.awaitTermination(5, TimeUnit.SECONDS);
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return Completes once the log has been opened and loaded into the cached view.
+     */
+    public CompletableFuture<Void> whenOpened(){
+        return this.log.thenAccept(opened -> {});
+    }
+
+    /**
+     * @return The best records, best first, from the cached view.
+     */
+    public List<ScoreRecord> getTop(){
+        return cached;
+    }
+}
@@ -0,0 +1,145 @@
+package project;
+
+import javafx.scene.media.Media;
+import javafx.scene.media.MediaPlayer;
+import javafx.util.Duration;
+import java.net.URL;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The audio cache loads every sound clip of the game once, and shares the players between games.
+ * Clips load in the background, each on its own, so a missing or broken file only silences that clip.
+ * Games borrow the players through a sound handler, and release them once they are done, see SoundHandler.
+ */
+public final class AudioCache {
+    public static final String SONG = "/sound/song1.mp3";
+    public static final List<String> DROP_SFX = List.of(
+            "/sound/sfx1.mp3", "/sound/sfx2.mp3", "/sound/sfx3.mp3", "/sound/sfx4.mp3",
+            "/sound/sfx5.mp3", "/sound/sfx6.mp3", "/sound/sfx7.mp3", "/sound/sfx8.mp3");
+    private static final double SONG_VOLUME = 0.25;
+    private static final double SFX_VOLUME = 0.6;
+
+    private static final AudioCache SHARED = new AudioCache();
+
+    // completes with the ready player of a clip, or null if the clip could not be loaded
+    private final Map<String, CompletableFuture<MediaPlayer>> players = new ConcurrentHashMap<>();
+    private final AtomicInteger leases = new AtomicInteger();
+
+    /**
+     * @return The cache shared by the whole application.
+     */
+    public static AudioCache shared(){
+        return SHARED;
+    }
+
+    /**
+     * Starts loading every clip in the background, does nothing for clips already loading.
+     * @return Completes once every clip is ready or has failed.
+     */
+    public CompletableFuture<Void> preload(){
+        CompletableFuture<?>[] loading = new CompletableFuture<?>[DROP_SFX.size() + 1];
+        loading[0] = this.load(SONG);
+        for(int i = 0; i < DROP_SFX.size(); i++){
+            loading[i + 1] = this.load(DROP_SFX.get(i));
+        }
+        return CompletableFuture.allOf(loading);
+    }
+
+    /**
+     * @param clip: Resource path of the clip.
+     * @return The future player of the clip, loading it if nobody has yet.
+     */
+    private CompletableFuture<MediaPlayer> load(String clip){
+        return this.players.computeIfAbsent(clip, key -> {
+            CompletableFuture<MediaPlayer> ready = new CompletableFuture<>();
+            CompletableFuture.runAsync(() -> {
+                try{
+                    URL url = getClass().getResource(key);
+                    if(url == null){
+                        System.out.println("Sound file missing: " + key);
+                        ready.complete(null);
+                        return;
+                    }
+                    MediaPlayer player = new MediaPlayer(new Media(url.toString()));
+                    this.configure(key, player);
+                    player.setOnReady(() -> ready.complete(player));
+                    player.setOnError(() -> {
+                        System.out.println("Sound file could not be played: " + key);
+                        ready.complete(null);
+                    });
+                }catch(Exception e){
+                    System.out.println("Sound file could not be loaded: " + key);
+                    ready.complete(null);
+                }
+            });
+            return ready;
+        });
+    }
+
+    /**
+     * Sets volume and looping of a fresh player.
+     */
+    private void configure(String clip, MediaPlayer player){
+        if(clip.equals(SONG)){
+            player.setVolume(SONG_VOLUME);
+            player.setOnEndOfMedia(() -> {
+                player.seek(Duration.ZERO);
+                player.play();
+            });
+        }else{
+            player.setVolume(SFX_VOLUME);
+        }
+    }
+
+    /**
+     * Never waits for a clip to load.
+     * @param clip: Resource path of the clip.
+     * @return The player of the clip, null if it is still loading or could not be loaded.
+     */
+    public MediaPlayer get(String clip){
+        return this.load(clip).getNow(null);
+    }
+
+    /**
+     * @param clip: Resource path of the clip.
+     * @return Completes with the player of the clip on the JavaFX thread once it is ready, or with null if it could not be loaded.
+     */
+    CompletableFuture<MediaPlayer> whenLoaded(String clip){
+        return this.load(clip);
+    }
+
+    /**
+     * Takes out a lease on the players, to be given back by release().
+     */
+    void borrow(){
+        this.leases.incrementAndGet();
+    }
+
+    /**
+     * Gives back a lease. Once the last lease is given back, stops and unmutes the players so the next game starts
+     * from scratch, players still leased to another game are left playing.
+     */
+    void release(){
+        if(this.leases.decrementAndGet() > 0){
+            return;
+        }
+        for(CompletableFuture<MediaPlayer> future : this.players.values()){
+            MediaPlayer player = future.getNow(null);
+            if(player != null){
+                player.stop();
+                player.setMute(false);
+            }
+        }
+    }
+
+    /**
+     * @return The amount of sound handlers currently borrowing the players.
+     */
+    public int getLeases(){
+        return leases.get();
+    }
+}
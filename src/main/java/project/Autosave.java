@@ -0,0 +1,129 @@
+package project;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import project.engine.Engine;
+import project.engine.Snapshot;
+
+/**
+ * The autosave keeps a snapshot of the running game on disk, so a crash or power loss costs only the last few seconds.
+ * The game thread hands over a copy of its engine, which is encoded and written on a background thread.
+ * Snapshots are written to a temporary file, forced to disk and moved over the previous one,
+ * so the file always holds one complete snapshot or none.
+ */
+public class Autosave {
+    private final Path path;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "autosave");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // the latest copy waiting to be written, a newer one replaces it
+    private final AtomicReference<Engine> pending = new AtomicReference<>();
+
+    /**
+     * @param path: The snapshot file.
+     */
+    public Autosave(Path path){
+        if(path == null){
+            throw new IllegalArgumentException("path cannot be null.");
+        }
+        this.path = path;
+    }
+
+    /**
+     * Writes a snapshot in the background.
+     * @param copy: A copy of the engine, which must not be changed afterwards, see Engine(Engine).
+     */
+    public void save(Engine copy){
+        if(this.pending.getAndSet(copy) == null && !this.executor.isShutdown()){
+            this.executor.execute(this::writePending);
+        }
+    }
+
+    /**
+     * Deletes the snapshot in the background, after any save before it.
+     */
+    public void delete(){
+        if(this.executor.isShutdown()){
+            return;
+        }
+        this.executor.execute(() -> {
+            try{
+                Files.deleteIfExists(this.path);
+            }
+            catch(IOException e){
+                System.out.println("Could not delete autosave: " + e);
+            }
+        });
+    }
+
+    /**
+     * Writes what has been saved and stops the background thread, waiting a few seconds at most.
+     * Later saves are ignored.
+     */
+    public void close(){
+        this.executor.shutdown();
+        try{
+            if(!this.executor.awaitTermination(3, TimeUnit.SECONDS)){
+                System.out.println("Autosave did not finish writing in time.");
+            }
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writePending(){
+        Engine engine = this.pending.getAndSet(null);
+        if(engine == null){
+            return;
+        }
+        Path temporary = this.path.resolveSibling(this.path.getFileName() + ".tmp");
+        try{
+            Files.createDirectories(this.path.getParent());
+            try(FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)){
+                ByteBuffer buffer = ByteBuffer.wrap(Snapshot.write(engine));
+                while(buffer.hasRemaining()){
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(temporary, this.path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch(IOException e){
+            System.out.println("Could not autosave: " + e);
+        }
+    }
+
+    /**
+     * Reads the snapshot, if there is one.
+     * @param path: The snapshot file.
+     * @return The saved engine, null if there is none or it cannot be read.
+     */
+    public static Engine load(Path path){
+        try{
+            return Snapshot.read(Files.readAllBytes(path));
+        }
+        catch(NoSuchFileException e){
+            return null;
+        }
+        catch(IOException e){
+            System.out.println("Could not load autosave: " + e);
+            return null;
+        }
+    }
+
+    public Path getPath(){
+        return path;
+    }
+}
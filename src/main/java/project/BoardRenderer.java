@@ -0,0 +1,63 @@
+package project;
+
+import javafx.scene.canvas.GraphicsContext;
+import project.engine.Board;
+import project.engine.Piece;
+
+/**
+ * A board renderer draws the state of an engine board to two stacked graphics contexts.
+ * The static layer holds the frame lines and the locked tiles, and is only drawn to when a piece locks.
+ * The piece layer holds the falling piece and its ghost, where it would land.
+ * Two backends are available, picked at startup (-Dtetris.renderer=canvas|pixels) to be compared:
+ * CanvasRenderer fills one rectangle per tile, PixelRenderer rasterizes into pixel buffers pushed in bulk.
+ */
+public interface BoardRenderer {
+	String CANVAS = "canvas";
+	String PIXELS = "pixels";
+
+	/**
+	 * Creates a renderer of the passed backend.
+	 * @param backend: CANVAS or PIXELS, null or anything else for CANVAS.
+	 * @param staticGc: Graphics context of the static layer.
+	 * @param pieceGc: Graphics context of the piece layer, stacked on top of the static layer.
+	 * @param tileSize: Side length of a tile in pixels.
+	 * @return The renderer.
+	 */
+	static BoardRenderer create(String backend, GraphicsContext staticGc, GraphicsContext pieceGc, int tileSize){
+		if(PIXELS.equals(backend)){
+			return new PixelRenderer(staticGc, pieceGc, tileSize);
+		}
+		if(backend != null && !backend.equals(CANVAS)){
+			System.out.println("Unknown renderer " + backend + ", drawing with " + CANVAS + ".");
+		}
+		return new CanvasRenderer(staticGc, pieceGc, tileSize);
+	}
+
+	/**
+	 * Redraws both layers from scratch: the frame lines and every locked tile, and no piece.
+	 * @param board: The board to be drawn.
+	 */
+	void reset(Board board);
+
+	/**
+	 * Draws a piece that has just been locked onto the static layer.
+	 * @param lockedPiece: The piece, at the position it was locked.
+	 */
+	void drawLocked(Piece lockedPiece);
+
+	/**
+	 * Draws the falling piece along with its ghost, replacing what was drawn by the last call.
+	 * @param currentPiece: The current piece to be drawn.
+	 * @param offsetX: Horizontal offset from the tile grid in pixels, used to draw the piece in between tiles.
+	 * @param offsetY: Vertical offset from the tile grid in pixels.
+	 * @param ghostDistance: How far the piece can fall before it lands, see Engine.landingDistance(), 0 for no ghost.
+	 */
+	void drawPiece(Piece currentPiece, int offsetX, int offsetY, int ghostDistance);
+
+	/**
+	 * Draws the falling piece without a ghost.
+	 */
+	default void drawPiece(Piece currentPiece, int offsetX, int offsetY){
+		drawPiece(currentPiece, offsetX, offsetY, 0);
+	}
+}
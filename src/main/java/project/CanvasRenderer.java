@@ -0,0 +1,229 @@
+package project;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import project.engine.Board;
+import project.engine.Piece;
+import project.engine.PieceShapes;
+import project.engine.Tile;
+
+/**
+ * The canvas renderer draws the state of an engine board to two stacked graphics contexts, one fillRect per tile.
+ * The static layer holds the frame lines and the locked tiles, and is only drawn to when a piece locks.
+ * The piece layer holds the falling piece and its ghost, where it would land, and only the tiles the piece leaves or
+ * enters are redrawn while the ghost stays put.
+ */
+public class CanvasRenderer implements BoardRenderer {
+	private static final int MAX_TILES = PieceShapes.MAX_SIZE * PieceShapes.MAX_SIZE;
+
+	private final GraphicsContext staticGc;
+	private final GraphicsContext pieceGc;
+	private final int tileSize;
+
+	// tiles currently drawn on the piece layer, packed as (x << 16 | y & 0xFFFF).
+	private final int[] drawnTiles = new int[MAX_TILES];
+	private int drawnCount = 0;
+	private byte drawnColor = Tile.EMPTY;
+	private int drawnOffsetX = 0;
+	private int drawnOffsetY = 0;
+	// tiles of the piece about to be drawn, same packing.
+	private final int[] pieceTiles = new int[MAX_TILES];
+	// tiles of the ghost currently drawn, and of the one about to be drawn, same packing.
+	// the ghost leaves out the tiles of the piece, and is always drawn on the tile grid.
+	private final int[] drawnGhost = new int[MAX_TILES];
+	private int drawnGhostCount = 0;
+	private final int[] ghostTiles = new int[MAX_TILES];
+
+	/**
+	 * @param staticGc: Graphics context of the static layer.
+	 * @param pieceGc: Graphics context of the piece layer, stacked on top of the static layer.
+	 * @param tileSize: Side length of a tile in pixels.
+	 */
+	public CanvasRenderer(GraphicsContext staticGc, GraphicsContext pieceGc, int tileSize){
+		if(staticGc == null || pieceGc == null){
+			throw new IllegalArgumentException("gc cannot be null.");
+		}
+		this.staticGc = staticGc;
+		this.pieceGc = pieceGc;
+		this.tileSize = tileSize;
+	}
+
+	@Override
+	public void reset(Board board){
+		if(board == null){
+			throw new IllegalArgumentException("board cannot be null.");
+		}
+		int gridWidth = board.getGridWidth();
+		int gridHeight = board.getGridHeight();
+		staticGc.clearRect(0, 0, staticGc.getCanvas().getWidth(), staticGc.getCanvas().getHeight());
+		pieceGc.clearRect(0, 0, pieceGc.getCanvas().getWidth(), pieceGc.getCanvas().getHeight());
+		drawnCount = 0;
+		drawnGhostCount = 0;
+		drawRect(gridWidth, gridHeight, 1);
+		drawRect(gridWidth, gridHeight, (double) Piece.ZONE_NUMERATOR / Piece.ZONE_DENOMINATOR);
+		// only chunks holding tiles are visited
+		board.forEachTile((x, y, color) -> {
+			// here is where accommodations according to the frontend framework used have to happen.
+			staticGc.setFill(Palette.colorOf(color));
+			staticGc.fillRect(x * tileSize, y * tileSize, tileSize, tileSize);
+		});
+	}
+
+	@Override
+	public void drawLocked(Piece lockedPiece){
+		if(lockedPiece == null){
+			throw new IllegalArgumentException("lockedPiece cannot be null.");
+		}
+		staticGc.setFill(Palette.colorOf(lockedPiece.getColorIndex()));
+		int count = collectTiles(lockedPiece);
+		for(int i = 0; i < count; i++){
+			staticGc.fillRect(tileX(pieceTiles[i]) * tileSize, tileY(pieceTiles[i]) * tileSize, tileSize, tileSize);
+		}
+	}
+
+	/**
+	 * Clears the tiles the piece left and fills the ones it entered since the last call.
+	 * When the piece is drawn at a new offset, or the ghost moves, both are redrawn, as the tiles of one may then cover the other.
+	 */
+	@Override
+	public void drawPiece(Piece currentPiece, int offsetX, int offsetY, int ghostDistance) {
+		if(currentPiece ==  null){
+			throw new IllegalArgumentException("currentPiece cannot be null.");
+		}
+		int count = collectTiles(currentPiece);
+		int ghostCount = collectGhost(currentPiece, count, ghostDistance);
+		byte color = currentPiece.getColorIndex();
+		boolean ghostMoved = ghostCount != drawnGhostCount || !containsAll(drawnGhost, drawnGhostCount, ghostTiles, ghostCount);
+		boolean redraw = color != drawnColor || ghostMoved || offsetX != 0 || offsetY != 0 || drawnOffsetX != 0 || drawnOffsetY != 0;
+		if(!redraw){
+			// both on the grid with the ghost in place, the piece never shares a tile with its ghost
+			drawPieceTiles(count, color, offsetX, offsetY, false);
+			return;
+		}
+		for(int i = 0; i < drawnGhostCount; i++){
+			pieceGc.clearRect(tileX(drawnGhost[i]) * tileSize, tileY(drawnGhost[i]) * tileSize, tileSize, tileSize);
+		}
+		for(int i = 0; i < drawnCount; i++){
+			pieceGc.clearRect(tileX(drawnTiles[i]) * tileSize + drawnOffsetX, tileY(drawnTiles[i]) * tileSize + drawnOffsetY, tileSize, tileSize);
+		}
+		pieceGc.setFill(Palette.ghostOf(color));
+		for(int i = 0; i < ghostCount; i++){
+			pieceGc.fillRect(tileX(ghostTiles[i]) * tileSize, tileY(ghostTiles[i]) * tileSize, tileSize, tileSize);
+		}
+		System.arraycopy(ghostTiles, 0, drawnGhost, 0, ghostCount);
+		drawnGhostCount = ghostCount;
+		drawnCount = 0;
+		drawPieceTiles(count, color, offsetX, offsetY, true);
+	}
+
+	/**
+	 * Draws the tiles in pieceTiles, clearing the drawn tiles it does not share.
+	 * @param redraw: Set to true to fill every tile, and clear none.
+	 */
+	private void drawPieceTiles(int count, byte color, int offsetX, int offsetY, boolean redraw){
+		for(int i = 0; i < drawnCount; i++){
+			if(!contains(pieceTiles, count, drawnTiles[i])){
+				pieceGc.clearRect(tileX(drawnTiles[i]) * tileSize + drawnOffsetX, tileY(drawnTiles[i]) * tileSize + drawnOffsetY, tileSize, tileSize);
+			}
+		}
+		pieceGc.setFill(Palette.colorOf(color));
+		for(int i = 0; i < count; i++){
+			if(redraw || !contains(drawnTiles, drawnCount, pieceTiles[i])){
+				pieceGc.fillRect(tileX(pieceTiles[i]) * tileSize + offsetX, tileY(pieceTiles[i]) * tileSize + offsetY, tileSize, tileSize);
+			}
+		}
+		System.arraycopy(pieceTiles, 0, drawnTiles, 0, count);
+		drawnCount = count;
+		drawnColor = color;
+		drawnOffsetX = offsetX;
+		drawnOffsetY = offsetY;
+	}
+
+	/**
+	 * Quite the wacky method, draws some squares using the graphics context, dont ask.
+	 * It's bad but it does the job.
+	 * @param gridWidth: Columns making up the board.
+	 * @param gridHeight: Rows making up the board.
+	 * @param percentage: I'm not sure, but it ain't like no percentage I've ever seen.
+	 */
+	public void drawRect(int gridWidth, int gridHeight, double percentage){
+		if(percentage < 0){
+			throw new IllegalArgumentException("percentage cannot be negative.");
+		}
+		staticGc.save();
+		staticGc.setStroke(Color.RED);
+		double width = gridWidth * tileSize;
+		double height = gridHeight * tileSize;
+		double transformedX = Math.floor(gridWidth * percentage) * tileSize;
+		double transformedY = Math.floor(gridHeight * percentage) * tileSize;
+		staticGc.strokePolyline(new double[]{width - transformedX, width - transformedX, transformedX, transformedX, width - transformedX}, new double[]{height - transformedY, transformedY, transformedY, height - transformedY, height - transformedY}, 5);
+		staticGc.restore();
+	}
+
+	/**
+	 * Collects the board positions of the tiles of a piece into pieceTiles.
+	 * @param piece: The piece.
+	 * @return The amount of tiles collected.
+	 */
+	private int collectTiles(Piece piece){
+		int count = 0;
+		int mask = piece.getMask();
+		for(int y = 0; y < piece.getSize(); y++){
+			for(int remaining = PieceShapes.row(mask, y); remaining != 0; remaining &= remaining - 1){
+				int x = piece.getXPos() + Integer.numberOfTrailingZeros(remaining);
+				pieceTiles[count++] = (x << 16) | ((piece.getYPos() + y) & 0xFFFF);
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Collects the tiles of the piece moved by the passed distance along its fall direction into ghostTiles,
+	 * leaving out those in pieceTiles.
+	 * @param piece: The piece.
+	 * @param count: The amount of tiles in pieceTiles.
+	 * @param distance: Tiles to move the piece by.
+	 * @return The amount of tiles collected.
+	 */
+	private int collectGhost(Piece piece, int count, int distance){
+		if(distance <= 0){
+			return 0;
+		}
+		int dx = piece.getFallX() * distance;
+		int dy = piece.getFallY() * distance;
+		int ghostCount = 0;
+		for(int i = 0; i < count; i++){
+			int tile = ((tileX(pieceTiles[i]) + dx) << 16) | ((tileY(pieceTiles[i]) + dy) & 0xFFFF);
+			if(!contains(pieceTiles, count, tile)){
+				ghostTiles[ghostCount++] = tile;
+			}
+		}
+		return ghostCount;
+	}
+
+	private static boolean containsAll(int[] tiles, int count, int[] subset, int subsetCount){
+		for(int i = 0; i < subsetCount; i++){
+			if(!contains(tiles, count, subset[i])){
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean contains(int[] tiles, int count, int tile){
+		for(int i = 0; i < count; i++){
+			if(tiles[i] == tile){
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static int tileX(int tile){
+		return tile >> 16;
+	}
+
+	private static int tileY(int tile){
+		return (short) tile;
+	}
+}
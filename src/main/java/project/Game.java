@@ -1,89 +1,86 @@
 package project;
 
-import javafx.scene.canvas.GraphicsContext;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
 import javafx.scene.input.KeyEvent;
-import javafx.scene.paint.Color;
+import jdk.jfr.EventType;
+import project.engine.Action;
+import project.engine.Engine;
+import project.engine.Piece;
+import project.engine.SpeedCurve;
+import project.metrics.GameMetrics;
+import project.metrics.InputEvent;
+import project.metrics.RenderEvent;
+import project.metrics.TickEvent;
+import project.net.SpectatorStream;
+import project.replay.Replay;
+import project.replay.ReplayRecorder;
+import project.sim.BatchRunner;
+import project.sim.PlacementStrategy;
+import project.sim.Strategy;
 
 /**
- * The game class is a wrapper for the majority of game logic.
+ * The game class adapts the headless engine to JavaFX: it drives the engine from the game loop and key presses,
+ * and turns what happens into drawing and sound.
  */
-public class Game {
-	// piece color constants
-	private static final Color tColor = Color.BLUE;
-	private static final Color iColor = Color.CORAL;
-	private static final Color sqColor = Color.YELLOW;
-	private static final Color l_1Color = Color.GREEN;
-	private static final Color l_2Color = Color.CHOCOLATE;
-	private static final Color z_1Color = Color.ORANGE;
-	private static final Color z_2Color = Color.DARKBLUE;
-
-	// piece template array
-	public static final Color[][][] PIECE_TEMPLATES = {
-			{
-				// t shape
-				{null, null, null},
-				{tColor, tColor, tColor},
-				{null, tColor, null}
-			},
-			{
-				// long shape
-				{null, null, null, null},
-				{iColor, iColor, iColor, iColor},
-				{null, null, null, null},
-				{null, null, null, null}
-			},
-			{
-				// square shape
-				{sqColor, sqColor},
-				{sqColor, sqColor}
-			},
-			{
-				// right L shape
-				{l_1Color, l_1Color, null},
-				{null, l_1Color, null},
-				{null, l_1Color, null}
-			},
-			{
-				// left L shape
-				{null, l_2Color, l_2Color},
-				{null, l_2Color, null},
-				{null, l_2Color, null}
-			},
-			{
-				// right Z shape
-				{null, null, null},
-				{null, z_1Color, z_1Color},
-				{z_1Color, z_1Color, null}
-			},
-			{
-				// left Z shape
-				{null, null, null},
-				{z_2Color, z_2Color, null},
-				{null, z_2Color, z_2Color}
-			}
-	};
-
+public class Game implements Playable {
 	// constants
 	private final GameController GAME_CONTROLLER;
 	private final GameLoop GAME_LOOP;
-	private final GraphicsContext GRAPHICS_CONTEXT;
+	private final BoardRenderer RENDERER;
 	private final SoundHandler SOUND_HANDLER;
-	private final Board BOARD;
-	private final int GRID_WIDTH;
-	private final int GRID_HEIGHT;
+	private final Engine ENGINE;
+	private final ReplayRecorder RECORDER;
+	private final Strategy AUTOPLAYER = new PlacementStrategy(false);
+	private final GameMetrics METRICS = GameMetrics.shared();
+	private final MetricsOverlay OVERLAY;
+	private final SpectatorStream SPECTATORS = new SpectatorStream();
+	private final InputQueue INPUTS = new InputQueue(DAS, ARR);
 
 	// game settings
 	public static final int TILE_SIZE = 15;
-	public static final int BUFFER_MAX = 8;
-	public static final int ROTATION_LIFT = 3;
-	public static final long FRAME_LENGTH = 50_000_000;
-	public static final String FILEPATH = "/save/highscores.txt";
+	public static final SpeedCurve SPEED_CURVE = SpeedCurve.DEFAULT;
+	private static final long WARM_UP_TICKS = 2000;
+	// scores and replays are kept in the home folder, next to nothing else
+	public static final Path DATA_DIRECTORY = Path.of(System.getProperty("user.home"), ".tetris");
+	public static final Path SCORE_PATH = DATA_DIRECTORY.resolve("scores.log");
+	// start every game from this seed when set (-Dtetris.seed=...), e.g. to reproduce a replay by hand
+	public static final String SEED_PROPERTY = "tetris.seed";
+	// replay of the last lost game
+	public static final Path REPLAY_PATH = DATA_DIRECTORY.resolve("last.replay");
+	// play on a game server instead when set (-Dtetris.server=host[:port]), see RemoteGame
+	public static final String SERVER_PROPERTY = "tetris.server";
+	// snapshot of the running game, resumed on the next launch
+	public static final Path AUTOSAVE_PATH = DATA_DIRECTORY.resolve("autosave.snapshot");
+	private static final long AUTOSAVE_INTERVAL = 3_000_000_000L;
+	private static final Autosave AUTOSAVE = new Autosave(AUTOSAVE_PATH);
+	// write a spectator stream of every game to this file when set (-Dtetris.spectate=...), see SpectatorReader
+	public static final String SPECTATE_PROPERTY = "tetris.spectate";
+	// delayed auto shift and auto repeat rate of held keys, in milliseconds (-Dtetris.das=..., -Dtetris.arr=...)
+	public static final long DAS = Long.getLong("tetris.das", 170) * 1_000_000;
+	public static final long ARR = Long.getLong("tetris.arr", 50) * 1_000_000;
+	// draw with this backend when set (-Dtetris.renderer=canvas|pixels), see BoardRenderer
+	public static final String RENDERER_PROPERTY = "tetris.renderer";
+	// flight recorder events are only created while a recording takes them, so ticks and frames allocate nothing otherwise
+	private static final EventType TICK_EVENT = EventType.getEventType(TickEvent.class);
+	private static final EventType RENDER_EVENT = EventType.getEventType(RenderEvent.class);
+	private static final EventType INPUT_EVENT = EventType.getEventType(InputEvent.class);
 
-	private Piece currentPiece;
-	private boolean lost = false;
 	private boolean paused = true;
+	private boolean autoplay = false;
+	// collision checks already counted in the metrics
+	private long collisionChecks = 0;
+	// time of the first input moving the piece since the last frame, -1 if there was none
+	private long inputTime = -1;
 	private int score = 0;
-	private int buffer = 0;
+	// time of the last autosave
+	private long lastSave = System.nanoTime();
 
 	/**
 	 * The game object functions as a container for game logic and interface between JavaFX and the backend.
@@ -93,6 +90,20 @@ public class Game {
 	 * @param GAME_CONTROLLER: JavaFX controller instance.
 	 */
 	public Game(int CANVAS_WIDTH, int CANVAS_HEIGHT, SoundHandler SOUND_HANDLER, GameController GAME_CONTROLLER) {
+		this(new Engine(CANVAS_WIDTH / TILE_SIZE, CANVAS_HEIGHT / TILE_SIZE, Long.getLong(SEED_PROPERTY, System.nanoTime())), SOUND_HANDLER, GAME_CONTROLLER);
+	}
+
+	/**
+	 * Creates a game around an engine, e.g. one resumed from the autosave.
+	 * Only games played from the first tick are recorded, as a replay has to start there.
+	 * @param ENGINE: The engine, sized to fit the drawing surface.
+	 * @param SOUND_HANDLER: Sound handler instance.
+	 * @param GAME_CONTROLLER: JavaFX controller instance.
+	 */
+	public Game(Engine ENGINE, SoundHandler SOUND_HANDLER, GameController GAME_CONTROLLER) {
+		if(ENGINE == null){
+			throw new IllegalArgumentException("ENGINE cannot be null.");
+		}
 		if(SOUND_HANDLER == null){
 			throw new IllegalArgumentException("SOUND_HANDLER cannot be null.");
 		}
@@ -101,27 +112,44 @@ public class Game {
 		}
 
 		this.GAME_CONTROLLER = GAME_CONTROLLER;
-		this.GRID_WIDTH = CANVAS_WIDTH / TILE_SIZE;
-		this.GRID_HEIGHT = CANVAS_HEIGHT / TILE_SIZE;
-		this.GRAPHICS_CONTEXT = GAME_CONTROLLER.getGc();
+		this.RENDERER = BoardRenderer.create(System.getProperty(RENDERER_PROPERTY), GAME_CONTROLLER.getStaticGc(), GAME_CONTROLLER.getGc(), TILE_SIZE);
 		this.SOUND_HANDLER = SOUND_HANDLER;
-		BOARD = new Board(this.GRID_WIDTH, this.GRID_HEIGHT);
-		currentPiece = new Piece(Game.PIECE_TEMPLATES, this.GRID_WIDTH, this.GRID_HEIGHT);
-		GAME_LOOP = new GameLoop(this);
+		this.OVERLAY = GAME_CONTROLLER.getOverlay();
+		this.ENGINE = ENGINE;
+		this.RECORDER = ENGINE.getTicks() == 0 ? new ReplayRecorder(ENGINE) : null;
+		this.RENDERER.reset(this.ENGINE.getBoard());
+		GAME_LOOP = new GameLoop(this, SPEED_CURVE);
+		String spectatePath = System.getProperty(SPECTATE_PROPERTY);
+		if(spectatePath != null){
+			try{
+				this.SPECTATORS.attach(FileChannel.open(Path.of(spectatePath), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING));
+			}
+			catch(IOException e){
+				System.out.println("Could not open spectator stream: " + e);
+			}
+		}
 	}
 
 	/**
-	 * Constructor only to be used for testing! May produce null-pointer exceptions!
+	 * Loads the game autosaved last, if it is still being played and fits the drawing surface.
+	 * @param CANVAS_WIDTH: The width of drawing surface in pixels.
+	 * @param CANVAS_HEIGHT: The height of drawing surface in pixels.
+	 * @return The autosaved engine, null if there is none to resume.
+	 */
+	public static Engine loadAutosave(int CANVAS_WIDTH, int CANVAS_HEIGHT){
+		Engine engine = Autosave.load(AUTOSAVE_PATH);
+		if(engine == null || engine.isLost() || engine.getGridWidth() != CANVAS_WIDTH / TILE_SIZE || engine.getGridHeight() != CANVAS_HEIGHT / TILE_SIZE){
+			return null;
+		}
+		return engine;
+	}
+
+	/**
+	 * Loads and warms up the engine on a throwaway headless game, so the first real game starts without a hitch.
+	 * Safe to call from any thread.
 	 */
-	public Game(int CANVAS_WIDTH, int CANVAS_HEIGHT){
-		this.GRID_WIDTH = CANVAS_WIDTH / TILE_SIZE;
-		this.GRID_HEIGHT = CANVAS_HEIGHT / TILE_SIZE;
-		BOARD = new Board(this.GRID_WIDTH, this.GRID_HEIGHT);
-		currentPiece = new Piece(Game.PIECE_TEMPLATES, this.GRID_WIDTH, this.GRID_HEIGHT);
-		this.SOUND_HANDLER = null;
-		this.GAME_CONTROLLER = null;
-		this.GRAPHICS_CONTEXT = null;
-		this.GAME_LOOP = null;
+	public static void warmUp(){
+		BatchRunner.play(new Engine(40, 40, 0), new PlacementStrategy(), WARM_UP_TICKS);
 	}
 
 	/**
@@ -129,21 +157,20 @@ public class Game {
 	 */
 	public void start(){
 		this.paused = false;
-		if(this.GAME_LOOP != null && this.SOUND_HANDLER != null){
-			this.GAME_LOOP.start();
-			this.SOUND_HANDLER.playMusic();
-		}
+		this.GAME_LOOP.start();
+		this.SOUND_HANDLER.playMusic();
 	}
 
 	/**
-	 * Stops (READ: pauses) the game loop and music.
+	 * Stops (READ: pauses) the game loop and music, and saves the game.
 	 */
 	public void stop(){
 		this.paused = true;
-		if(this.GAME_LOOP != null && this.SOUND_HANDLER != null){
-			this.GAME_LOOP.stop();
-			this.SOUND_HANDLER.pauseMusic();
-		}
+		// keys released while paused are never seen
+		this.INPUTS.clear();
+		this.GAME_LOOP.stop();
+		this.SOUND_HANDLER.pauseMusic();
+		this.autosave();
 	}
 
 	/**
@@ -151,47 +178,105 @@ public class Game {
 	 */
 	public void restart(){
 		this.paused = false;
-		if(GAME_LOOP != null && this.SOUND_HANDLER != null){
-			this.GAME_LOOP.start();
-			this.SOUND_HANDLER.stopMusic();
-			this.SOUND_HANDLER.playMusic();
-		}
+		this.GAME_LOOP.start();
+		this.SOUND_HANDLER.stopMusic();
+		this.SOUND_HANDLER.playMusic();
+	}
+
+	/**
+	 * Stops the game for good, and gives its sound players back to the audio cache.
+	 * A disposed game is not resumed.
+	 */
+	public void dispose(){
+		this.stop();
+		AUTOSAVE.delete();
+		this.SOUND_HANDLER.release();
+		this.SPECTATORS.close();
 	}
 
 	/**
 	 * Performs one step of game logic, returns nothing, but invokes other methods based on game state.
+	 * Locked pieces are drawn right away, the falling piece is drawn by render().
 	 */
 	public void tick(){
-		// if a piece lands
-		if(!this.currentPiece.fall(this.BOARD, false)){
-			// play sound
-			if(this.buffer == 0 && this.SOUND_HANDLER != null){
-				this.SOUND_HANDLER.playSFX();
-			}
-			// if a piece has been on ground for frames = buffer
-			if(this.buffer == BUFFER_MAX){
-				if(this.currentPiece.outOfBounds(this.GRID_WIDTH, this.GRID_HEIGHT)){
-					this.loss();
-					return;
-				}
-				this.buffer = 0;
-				this.BOARD.makeCurrentBoardArr(this.currentPiece);
-				this.currentPiece = new Piece(Game.PIECE_TEMPLATES, this.GRID_WIDTH, this.GRID_HEIGHT);
-			}
-			else{
-				this.buffer++;
-			}
+		long start = System.nanoTime();
+		TickEvent event = TICK_EVENT.isEnabled() ? new TickEvent() : null;
+		if(event != null){
+			event.begin();
 		}
-		else{
-			if(this.currentPiece.getLossState()){
-				this.loss();
-			}
-			else{
-				this.buffer = 0;
-			}
+		if(this.autoplay){
+			this.autoplay();
+		}
+		// a locked piece is replaced by a new one, keep hold of it to draw it
+		Piece piece = this.ENGINE.getPiece();
+		int result = this.step(Action.TICK);
+		// play sound when a piece lands
+		if((result & Engine.LANDED) != 0){
+			this.SOUND_HANDLER.playSFX();
+		}
+		if((result & Engine.CLEARED) != 0){
+			// cleared rings move most of the static tiles, so the static layer is drawn anew.
+			this.RENDERER.reset(this.ENGINE.getBoard());
+		}
+		else if((result & Engine.LOCKED) != 0){
+			this.RENDERER.drawLocked(piece);
+		}
+		if((result & Engine.LOCKED) != 0){
+			this.METRICS.pieceLocked();
+		}
+		this.SPECTATORS.publish(this.ENGINE, result, (result & Engine.LOCKED) != 0 ? piece : null);
+		if(event != null){
+			event.result = result;
+			event.commit();
 		}
-		if(this.GRAPHICS_CONTEXT != null){
-			this.BOARD.drawCurrent(GRAPHICS_CONTEXT, currentPiece);
+		this.METRICS.recordTick(System.nanoTime() - start);
+		long collisionChecks = this.ENGINE.getCollisionChecks();
+		this.METRICS.addCollisionChecks(collisionChecks - this.collisionChecks);
+		this.collisionChecks = collisionChecks;
+		if((result & Engine.LOST) != 0){
+			this.loss();
+		}
+		else if(start - this.lastSave >= AUTOSAVE_INTERVAL){
+			this.autosave();
+		}
+	}
+
+	/**
+	 * Waits for the autosave to write the last snapshot handed to it, e.g. before the application exits.
+	 */
+	public static void closeAutosave(){
+		AUTOSAVE.close();
+	}
+
+	/**
+	 * Hands a copy of the engine to the autosave, which writes it in the background.
+	 */
+	private void autosave(){
+		if(!this.ENGINE.isLost()){
+			this.lastSave = System.nanoTime();
+			AUTOSAVE.save(new Engine(this.ENGINE));
+		}
+	}
+
+	/**
+	 * Steps the engine, through the recorder to end up in the replay if there is one.
+	 * @param action: The action to be applied.
+	 * @return Step result flags.
+	 */
+	private int step(Action action){
+		return this.RECORDER != null ? this.RECORDER.step(action) : this.ENGINE.step(action);
+	}
+
+	/**
+	 * Lets the autoplayer steer the current piece, before the tick moves it on.
+	 */
+	private void autoplay(){
+		for(int inputs = 0; inputs < BatchRunner.MAX_INPUTS_PER_TICK; inputs++){
+			Action action = this.AUTOPLAYER.act(this.ENGINE);
+			if(action == Action.TICK){
+				return;
+			}
+			this.step(action);
 		}
 	}
 
@@ -199,54 +284,125 @@ public class Game {
 	 * Sets relevant states when a game is lost.
 	 */
 	public void loss(){
-		this.lost = true;
-		if(GAME_LOOP != null && SOUND_HANDLER != null){
-			this.GAME_LOOP.stop();
-			this.SOUND_HANDLER.stopMusic();
-		}
-		this.score = this.BOARD.getScore();
-		if(GAME_CONTROLLER != null){
-			this.GAME_CONTROLLER.loss();
+		this.GAME_LOOP.stop();
+		this.SOUND_HANDLER.stopMusic();
+		this.score = this.ENGINE.getScore();
+		this.GAME_CONTROLLER.loss();
+		AUTOSAVE.delete();
+		if(this.RECORDER != null){
+			this.saveReplay(this.RECORDER.toReplay());
 		}
+		this.SPECTATORS.close();
 	}
 
 	/**
-	 * Handles user input from JavaFX.
+	 * Writes a replay to REPLAY_PATH in the background, replacing the previous one.
+	 * @param replay: The replay to be saved.
+	 */
+	private void saveReplay(Replay replay){
+		CompletableFuture.runAsync(() -> {
+			try{
+				Files.createDirectories(REPLAY_PATH.getParent());
+				try(OutputStream out = new BufferedOutputStream(Files.newOutputStream(REPLAY_PATH))){
+					replay.write(out);
+				}
+			}
+			catch(IOException e){
+				System.out.println("Could not save replay: " + e);
+			}
+		});
+	}
+
+	/**
+	 * Handles user input from JavaFX. Game inputs are queued, and applied at the start of the next frame.
 	 * @param key: The key event to be handled.
 	 */
 	public void handleKeyPress(KeyEvent key){
 		if(!isLost() && !isPaused()) {
-			if(this.GRAPHICS_CONTEXT != null){
-				this.GRAPHICS_CONTEXT.clearRect(0, 0, GRID_HEIGHT * TILE_SIZE, GRID_HEIGHT * TILE_SIZE);
-			}
 			switch (key.getCode()) {
-				case UP:
-				case DOWN:
-				case LEFT:
-				case RIGHT:
-					this.currentPiece.move(key.getCode(), BOARD);
-					break;
-				case SPACE:
-					this.currentPiece.rotate(this.BOARD);
-					break;
-				case F:
-					this.currentPiece.fall(this.BOARD, false);
-					break;
-				case M:
-					if(this.SOUND_HANDLER != null){
-						this.SOUND_HANDLER.toggleMute();
+				case M -> this.SOUND_HANDLER.toggleMute();
+				case A -> this.autoplay = !this.autoplay;
+				default -> {
+					Action action = InputQueue.bindingOf(key.getCode());
+					if(action != null){
+						this.INPUTS.press(action, System.nanoTime());
 					}
-				default:
-					break;
-			}
-			if(this.GRAPHICS_CONTEXT != null){
-				this.BOARD.drawCurrent(this.GRAPHICS_CONTEXT, currentPiece);
+				}
 			}
 		}
 	}
 
-	public void setPiece(Piece piece){
-		this.currentPiece = piece;
+	/**
+	 * Stops a held key from repeating.
+	 * @param key: The key event to be handled.
+	 */
+	public void handleKeyRelease(KeyEvent key){
+		Action action = InputQueue.bindingOf(key.getCode());
+		if(action != null){
+			this.INPUTS.release(action);
+		}
+	}
+
+	/**
+	 * Applies the inputs made since the last frame, along with the repeats of held keys. Called by the game loop
+	 * at the start of every frame, before its ticks.
+	 * @param now: Time of the frame, as System.nanoTime().
+	 */
+	public void applyInputs(long now){
+		this.INPUTS.drain(now, this::applyInput);
+	}
+
+	/**
+	 * Steps the engine by one input, through the recorder to end up in the replay.
+	 * @return Returns true if the piece moved, and is still on the board.
+	 */
+	private boolean applyInput(Action action, long time){
+		int result = this.step(action);
+		// a hard drop lands the piece right away, rather than on the next tick
+		if((result & Engine.LANDED) != 0){
+			this.SOUND_HANDLER.playSFX();
+		}
+		// input to redraw latency is counted from the first input drawn by the next frame
+		if((result & Engine.MOVED) != 0 && this.inputTime < 0){
+			this.inputTime = time;
+		}
+		return (result & Engine.MOVED) != 0 && !this.ENGINE.getPiece().getLossState();
+	}
+
+	/**
+	 * Draws the current piece, the locked tiles are drawn as pieces lock.
+	 * A piece that is about to fall is drawn part of the way towards its next tile.
+	 * @param alpha: How far the game is into the next tick, between 0 and 1.
+	 */
+	public void render(double alpha){
+		long start = System.nanoTime();
+		RenderEvent event = RENDER_EVENT.isEnabled() ? new RenderEvent() : null;
+		if(event != null){
+			event.begin();
+		}
+		Piece piece = this.ENGINE.getPiece();
+		int offsetX = 0;
+		int offsetY = 0;
+		if(this.ENGINE.canFall()){
+			offsetX = (int) Math.round(alpha * piece.getFallX() * TILE_SIZE);
+			offsetY = (int) Math.round(alpha * piece.getFallY() * TILE_SIZE);
+		}
+		this.RENDERER.drawPiece(piece, offsetX, offsetY, this.ENGINE.landingDistance());
+		if(event != null){
+			event.commit();
+		}
+		long end = System.nanoTime();
+		this.METRICS.recordRender(end - start);
+		if(this.inputTime >= 0){
+			if(INPUT_EVENT.isEnabled()){
+				InputEvent inputEvent = new InputEvent();
+				inputEvent.latency = end - this.inputTime;
+				inputEvent.commit();
+			}
+			this.METRICS.recordInputToRedraw(end - this.inputTime);
+			this.inputTime = -1;
+		}
+		this.OVERLAY.update(end);
 	}
 
 	/*
@@ -259,10 +415,24 @@ public class Game {
 	}
 
 	public boolean isLost(){
-		return lost;
+		return ENGINE.isLost();
 	}
 
 	public int getScore(){
 		return score;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * @return The spectator stream of the game, published to after every tick.
+	 */
+	public SpectatorStream getSpectators(){
+		return SPECTATORS;
+	}
+
+	/**
+	 * @return The amount of pieces locked so far, which the game loop speeds up by.
+	 */
+	public int getLocks(){
+		return ENGINE.getLocks();
+	}
+}
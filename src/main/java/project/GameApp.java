@@ -1,5 +1,6 @@
 package project;
 
+import javafx.animation.AnimationTimer;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -7,19 +8,47 @@ import javafx.scene.Scene;
 import javafx.stage.Stage;
 
 public class GameApp extends Application {
+    private GameController controller = null;
 
     @Override
     public void start(Stage stage) throws Exception {
-        Parent parent = FXMLLoader.load(getClass().getResource("/view/game.fxml"));
+        StartupTimer.mark("toolkit");
+        FXMLLoader loader = new FXMLLoader(getClass().getResource("/view/game.fxml"));
+        Parent parent = loader.load();
+        GameController controller = loader.getController();
+        this.controller = controller;
+        StartupTimer.mark("fxml");
         stage.setTitle("TETRIS");
         Scene scene = new Scene(parent);
         scene.getRoot().requestFocus();
         stage.setScene(scene);
         stage.setResizable(false);
         stage.show();
+        StartupTimer.mark("shown");
+        // the rest is warmed up behind the start image, once it is on screen
+        new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                this.stop();
+                StartupTimer.mark("first frame");
+                StartupTimer.report();
+                controller.warmUp();
+            }
+        }.start();
+    }
+
+    /**
+     * Closing the window pauses the game, so it is saved and resumed on the next launch.
+     */
+    @Override
+    public void stop() {
+        if(this.controller != null){
+            this.controller.shutdown();
+        }
     }
 
     public static void main(String[] args) {
+        StartupTimer.mark("main");
         launch(GameApp.class, args);
     }
-}
\ No newline at end of file
+}
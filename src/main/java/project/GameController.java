@@ -1,5 +1,6 @@
 package project;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
@@ -11,17 +12,28 @@ import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.Text;
+import project.engine.Engine;
+import project.metrics.GameMetrics;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class GameController {
-	private final HighScoreHandler highScoreHandler = new HighScoreHandler(Game.FILEPATH);
-	private Game game = null;
+	// opened on first use, or while the start image is showing
+	private AsyncScoreLog scoreLog = null;
+	private Playable game = null;
 	private GraphicsContext gc;
+	private GraphicsContext staticGc;
+	private MetricsOverlay overlay;
 
 	@FXML
 	Canvas mainCanvas;
 	@FXML
+	Canvas staticCanvas;
+	@FXML
+	Canvas overlayCanvas;
+	@FXML
 	Pane lossScreen;
 	@FXML
 	VBox highScores;
@@ -33,14 +45,61 @@ public class GameController {
 	public void initialize(){
 		lossScreen.setOpacity(0);
 		this.gc = this.mainCanvas.getGraphicsContext2D();
+		this.staticGc = this.staticCanvas.getGraphicsContext2D();
+		this.overlay = new MetricsOverlay(this.overlayCanvas, GameMetrics.shared());
+	}
+
+	/**
+	 * Starts loading sound, scores and the engine in the background, so they are ready once a game is started.
+	 * Logs when all of them are done.
+	 */
+	public void warmUp(){
+		long start = StartupTimer.sinceStart();
+		CompletableFuture.allOf(
+				AudioCache.shared().preload(),
+				scoreLog().whenOpened(),
+				CompletableFuture.runAsync(Game::warmUp)
+		).thenRun(() -> System.out.println("Warm-up: done " + StartupTimer.sinceStart() + " ms (+" + (StartupTimer.sinceStart() - start) + ")"));
+	}
+
+	/**
+	 * @return The score log, opening it in the background the first time.
+	 */
+	private AsyncScoreLog scoreLog(){
+		if(this.scoreLog == null){
+			this.scoreLog = new AsyncScoreLog(Game.SCORE_PATH);
+		}
+		return this.scoreLog;
+	}
+
+	/**
+	 * Pauses the game, which saves it, and waits for the save and any submitted score to be written.
+	 * Called as the application exits.
+	 */
+	public void shutdown(){
+		if(this.game != null && !this.game.isLost()){
+			this.game.stop();
+		}
+		Game.closeAutosave();
+		// the log is only opened once needed, there is nothing to write if it never was
+		if(this.scoreLog != null){
+			try{
+				this.scoreLog.close();
+			}catch(IOException e){
+				System.out.println("Could not close score log: " + e);
+			}
+		}
 	}
 
 	@FXML
 	public void handleKeyPress(KeyEvent event){
+		if(event.getCode() == KeyCode.F3){
+			this.overlay.toggle();
+			return;
+		}
 		if(game != null){
 			if (event.getCode() == KeyCode.SHIFT) {
 				restart();
-				this.highScoreHandler.write(0);
 			}else{
 				this.game.handleKeyPress(event);
 			}
@@ -51,11 +110,18 @@ public class GameController {
 		}
 	}
 
+	@FXML
+	public void handleKeyRelease(KeyEvent event){
+		if(game != null){
+			this.game.handleKeyRelease(event);
+		}
+	}
+
 	@FXML
 	// is in fact a play/pause toggle
 	public void play(){
 		if(this.game == null){
-			game = new Game((int) this.mainCanvas.getWidth(), (int) this.mainCanvas.getWidth(), new SoundHandler(), this);
+			game = newGame(true);
 			game.start();
 		}
 		else{
@@ -72,27 +138,68 @@ public class GameController {
 
 	@FXML
 	public void restart(){
-		game.stop();
-		game = new Game((int) this.mainCanvas.getWidth(), (int) this.mainCanvas.getWidth(), new SoundHandler(), this);
+		game.dispose();
+		game = newGame(false);
 		lossScreen.setOpacity(0);
 		game.restart();
 		//mainCanvas.requestFocus();
 	}
 
+	/**
+	 * @param resume: Resume the autosaved game, if there is one.
+	 * @return A game on the server named by Game.SERVER_PROPERTY, or a local one if none is named or it cannot be reached.
+	 */
+	private Playable newGame(boolean resume){
+		int width = (int) this.mainCanvas.getWidth();
+		int height = (int) this.mainCanvas.getHeight();
+		String server = System.getProperty(Game.SERVER_PROPERTY);
+		if(server != null){
+			try{
+				return new RemoteGame(width, height, new SoundHandler(), this, server);
+			}
+			catch(IOException e){
+				System.out.println("Could not reach " + server + ", playing locally: " + e);
+			}
+		}
+		Engine saved = resume ? Game.loadAutosave(width, height) : null;
+		if(saved != null){
+			System.out.println("Resuming autosaved game at tick " + saved.getTicks());
+			return new Game(saved, new SoundHandler(), this);
+		}
+		return new Game(width, height, new SoundHandler(), this);
+	}
+
 	public void loss(){
-		score.setText("SCORE: " + this.game.getScore());
-		highScores.getChildren().clear();
-		if(this.game.getScore() > 0){
-			highScoreHandler.write(this.game.getScore());
+		Playable lostGame = this.game;
+		int lostScore = lostGame.getScore();
+		score.setText("SCORE: " + lostScore);
+		if(lostScore > 0){
+			// the list is redrawn once the score is on disk, unless a new game has started by then
+			scoreLog().submit(ScoreLog.defaultName(), lostScore).thenAccept(written -> Platform.runLater(() -> {
+				if(this.game == lostGame){
+					showHighScores(scoreLog().read(), lostScore);
+				}
+			}));
 		}
-		List<Integer> highScoresList = highScoreHandler.read();
+		// the cached scores include the submitted one already
+		showHighScores(scoreLog().read(), lostScore);
+		lossScreen.setOpacity(1);
+	}
+
+	/**
+	 * Fills the high score list of the loss screen.
+	 * @param highScoresList: The best scores, best first.
+	 * @param currentScore: Score of the lost game, marked in the list.
+	 */
+	private void showHighScores(List<Integer> highScoresList, int currentScore){
+		highScores.getChildren().clear();
 		boolean currentScoreFound = false;
 		for(int i = 0; i < 10; i++){
 			Text point = new Text();
 			if(i < highScoresList.size()){
 				int score = highScoresList.get(i);
 				point.setText((i + 1) + ".\t" + score);
-				if(score == this.game.getScore() && !currentScoreFound){
+				if(score == currentScore && !currentScoreFound){
 					point.setFill(Color.RED);
 					currentScoreFound = true;
 				}
@@ -102,10 +209,17 @@ public class GameController {
 			point.setFont(Font.font("Agency FB", 13));
 			highScores.getChildren().add(point);
 		}
-		lossScreen.setOpacity(1);
 	}
 
 	public GraphicsContext getGc(){
 		return this.gc;
 	}
+
+	public GraphicsContext getStaticGc(){
+		return this.staticGc;
+	}
+
+	public MetricsOverlay getOverlay(){
+		return this.overlay;
+	}
 }
\ No newline at end of file
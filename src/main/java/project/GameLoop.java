@@ -1,30 +1,60 @@
 package project;
 
 import javafx.animation.AnimationTimer;
+import project.engine.SpeedCurve;
+import project.engine.TickScheduler;
 
 /**
  * The game loop class handles timing of 'game ticks',
  * as well as calls to the game object.
+ * Ticks run on a fixed timestep taken from the speed curve, independent of the frame rate,
+ * while drawing happens once per frame, interpolated between ticks.
+ * Inputs made since the last frame are applied at the start of each frame, before its ticks.
  */
 public class GameLoop extends AnimationTimer {
     private final Game game;
-    private long frameLength;
-    private long lastUpdate = 0;
+    private final SpeedCurve speedCurve;
+    private final TickScheduler scheduler = new TickScheduler();
+    private long lastFrame = -1;
 
     /**
      * @param game: The game to be called upon.
+     * @param speedCurve: Decides the tick length as the game goes on.
      */
-    public GameLoop(Game game){
+    public GameLoop(Game game, SpeedCurve speedCurve){
         this.game = game;
-        this.frameLength = Game.FRAME_LENGTH;
+        this.speedCurve = speedCurve;
+    }
+
+    @Override
+    public void start() {
+        // time spent paused is not owed
+        this.lastFrame = -1;
+        this.scheduler.reset();
+        super.start();
     }
 
     @Override
     public void handle(long now) {
-        if(now - this.lastUpdate >= frameLength){
+        if(this.lastFrame >= 0){
+            this.scheduler.advance(now - this.lastFrame);
+        }
+        this.lastFrame = now;
+        if(!this.game.isLost()){
+            this.game.applyInputs(now);
+        }
+        while(!this.game.isLost() && this.scheduler.nextTick(this.tickLength())){
             this.game.tick();
-            this.lastUpdate = now;
-            this.frameLength--;
         }
+        if(!this.game.isLost()){
+            this.game.render(this.scheduler.getAlpha(this.tickLength()));
+        }
+    }
+
+    /**
+     * @return The tick length at the level the game has reached.
+     */
+    private long tickLength(){
+        return this.speedCurve.tickLength(this.speedCurve.levelOf(this.game.getLocks()));
     }
-}
\ No newline at end of file
+}
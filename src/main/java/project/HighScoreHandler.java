@@ -23,6 +23,17 @@ public class HighScoreHandler implements FileIO{
         }catch(Exception ignored){}
     }
 
+    /**
+     * Uses the passed file directly, for scoreboards living outside the resource folder.
+     * @param file: The scoreboard file.
+     */
+    public HighScoreHandler(File file){
+        if(file == null){
+            throw new IllegalArgumentException("file cannot be null.");
+        }
+        this.file = file;
+    }
+
     /**
      * @return: The list of integers contained in the file, all zeros if file is corrupted.
      */
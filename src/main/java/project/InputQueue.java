@@ -0,0 +1,157 @@
+package project;
+
+import javafx.scene.input.KeyCode;
+import project.engine.Action;
+
+/**
+ * The input queue holds the key presses made between frames, to be applied to the game at the start of the next frame,
+ * ahead of its ticks. Held keys are repeated by the game rather than the operating system: a moving key repeats after
+ * the delayed auto shift (DAS), then once every auto repeat rate (ARR), and the repeats sent by the operating system are
+ * ignored. Only the latest of the sideways keys repeats, and soft drops repeat alongside it.
+ * Rotations and hard drops happen once per press.
+ */
+public class InputQueue {
+	// presses kept between two frames, any further are dropped
+	private static final int CAPACITY = 32;
+	// repeats applied in one frame at most, an ARR of 0 repeats until the piece stops
+	private static final int MAX_REPEATS = 256;
+	private static final Action[] ACTIONS = Action.values();
+
+	private final long delay;
+	private final long rate;
+
+	// FX thread only
+	private final Action[] queued = new Action[CAPACITY];
+	private final long[] queuedTimes = new long[CAPACITY];
+	private int head = 0;
+	private int count = 0;
+	private final boolean[] held = new boolean[ACTIONS.length];
+	// time the held key repeats next, Long.MAX_VALUE if it does not
+	private final long[] nextRepeat = new long[ACTIONS.length];
+
+	/**
+	 * Applies one input to the game.
+	 */
+	public interface Handler {
+		/**
+		 * @param action: The action.
+		 * @param time: When the input was made, as System.nanoTime().
+		 * @return Returns true if the action moved the piece.
+		 */
+		boolean apply(Action action, long time);
+	}
+
+	/**
+	 * @param delay: Delayed auto shift, how long a key is held before it repeats, in nanoseconds.
+	 * @param rate: Auto repeat rate, the time between repeats in nanoseconds, 0 to repeat until the piece stops.
+	 */
+	public InputQueue(long delay, long rate){
+		if(delay < 0 || rate < 0){
+			throw new IllegalArgumentException("delay and rate cannot be negative.");
+		}
+		this.delay = delay;
+		this.rate = rate;
+		this.clear();
+	}
+
+	/**
+	 * @param code: A key.
+	 * @return The action the key is bound to, null if it is bound to none.
+	 */
+	public static Action bindingOf(KeyCode code){
+		return switch (code) {
+			case UP -> Action.UP;
+			case DOWN -> Action.DOWN;
+			case LEFT -> Action.LEFT;
+			case RIGHT -> Action.RIGHT;
+			case SPACE -> Action.ROTATE;
+			case F -> Action.FALL;
+			case ENTER -> Action.HARD_DROP;
+			default -> null;
+		};
+	}
+
+	/**
+	 * Queues the action of a pressed key, unless the key is already held down.
+	 * @param action: The action.
+	 * @param now: Time of the press, as System.nanoTime().
+	 */
+	public void press(Action action, long now){
+		if(this.held[action.ordinal()]){
+			return;
+		}
+		this.held[action.ordinal()] = true;
+		if(this.count < CAPACITY){
+			this.queued[(this.head + this.count) % CAPACITY] = action;
+			this.queuedTimes[(this.head + this.count) % CAPACITY] = now;
+			this.count++;
+		}
+		if(sideways(action)){
+			for(Action other : ACTIONS){
+				if(sideways(other)){
+					this.nextRepeat[other.ordinal()] = Long.MAX_VALUE;
+				}
+			}
+		}
+		if(sideways(action) || action == Action.FALL){
+			this.nextRepeat[action.ordinal()] = now + this.delay;
+		}
+	}
+
+	/**
+	 * Stops a key from repeating.
+	 * @param action: The action of the released key.
+	 */
+	public void release(Action action){
+		this.held[action.ordinal()] = false;
+		this.nextRepeat[action.ordinal()] = Long.MAX_VALUE;
+	}
+
+	/**
+	 * Forgets every queued press and held key, e.g. when the game is paused and releases may go unseen.
+	 */
+	public void clear(){
+		this.head = 0;
+		this.count = 0;
+		for(int i = 0; i < ACTIONS.length; i++){
+			this.held[i] = false;
+			this.nextRepeat[i] = Long.MAX_VALUE;
+		}
+	}
+
+	/**
+	 * Applies the queued presses in the order they were made, then the repeats of held keys due by now.
+	 * @param now: Time of the frame, as System.nanoTime().
+	 * @param handler: Applies the inputs to the game.
+	 */
+	public void drain(long now, Handler handler){
+		for(; this.count > 0; this.count--){
+			handler.apply(this.queued[this.head], this.queuedTimes[this.head]);
+			this.head = (this.head + 1) % CAPACITY;
+		}
+		this.head = 0;
+		for(Action action : ACTIONS){
+			long time = this.nextRepeat[action.ordinal()];
+			for(int repeats = 0; time <= now && repeats < MAX_REPEATS; repeats++){
+				boolean moved = handler.apply(action, time);
+				if(this.rate == 0){
+					if(!moved){
+						break;
+					}
+				}
+				else{
+					time += this.rate;
+				}
+			}
+			if(this.rate > 0 && time <= now){
+				// repeats owed beyond the cap are not made up for later
+				time = now + this.rate;
+			}
+			this.nextRepeat[action.ordinal()] = time;
+		}
+	}
+
+	private static boolean sideways(Action action){
+		return action == Action.UP || action == Action.DOWN || action == Action.LEFT || action == Action.RIGHT;
+	}
+}
@@ -0,0 +1,277 @@
+package project;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The leaderboard ranks scores submitted by many threads at once, without a lock shared between them.
+ * Submissions are spread over stripes, one per thread, each keeping the best records submitted to it in a small heap
+ * and a count of every score it has seen. The best records overall are merged from the heaps of all stripes when read,
+ * and the rank of a score is summed from the counts of all stripes, so neither reads nor writes ever block all threads.
+ * Scores below EXACT_SCORES are counted one by one, larger ones in buckets a 1/BUCKETS_PER_OCTAVE of their size wide,
+ * so the counts take the same memory however high the scores go.
+ *
+ * A store, such as a ScoreLog, may hold the board between runs. It is read once when the board is created,
+ * and save() writes the records which made the board since. Only those touch the store, so the rate of submissions
+ * is not bound by the disk.
+ */
+public class Leaderboard implements FileIO {
+    public static final int DEFAULT_CAPACITY = ScoreLog.DEFAULT_CAPACITY;
+    // worst first, so the head of a full heap is the record given up for a better one
+    private static final Comparator<ScoreRecord> WORST_FIRST = ScoreRecord.RANKING.reversed();
+    private static final int OCTAVE_BITS = 10;
+    public static final int BUCKETS_PER_OCTAVE = 1 << OCTAVE_BITS;
+    public static final int EXACT_SCORES = 2 * BUCKETS_PER_OCTAVE;
+    private static final int BUCKETS = bucketOf(Integer.MAX_VALUE) + 1;
+
+    private final int capacity;
+    private final Stripe[] stripes;
+    private final FileIO store;
+    private final String defaultName;
+    // bumped whenever the heap of a stripe changes, to tell whether the merged records are still current
+    private final AtomicLong version = new AtomicLong();
+    private volatile Merged merged = new Merged(-1, List.of());
+
+    /**
+     * The best records overall, best first, as of a version.
+     */
+    private record Merged(long version, List<ScoreRecord> records) {}
+
+    /**
+     * The share of submissions made by some of the threads, guarded by its own lock.
+     */
+    private static final class Stripe {
+        final PriorityQueue<ScoreRecord> top = new PriorityQueue<>(WORST_FIRST);
+        // records which entered the heap since the last save
+        List<ScoreRecord> unsaved = new ArrayList<>();
+        // Fenwick tree over the buckets of the scores seen, node i counting the buckets in (i - lowest bit of i, i], offset by 1
+        final long[] counts = new long[BUCKETS + 1];
+        long total = 0;
+    }
+
+    /**
+     * Creates an empty board keeping the DEFAULT_CAPACITY best records, in memory only.
+     */
+    public Leaderboard(){
+        this(DEFAULT_CAPACITY, null);
+    }
+
+    /**
+     * Creates a board, striped for the cores of the machine.
+     * @param capacity: The amount of best records kept.
+     * @param store: Where the board is loaded from and saved to, null to keep it in memory only.
+     */
+    public Leaderboard(int capacity, FileIO store){
+        this(capacity, store, 2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param capacity: The amount of best records kept.
+     * @param store: Where the board is loaded from and saved to, null to keep it in memory only.
+     * @param stripes: The amount of stripes submissions are spread over, rounded up to a power of two.
+     */
+    public Leaderboard(int capacity, FileIO store, int stripes){
+        if(capacity <= 0 || stripes <= 0){
+            throw new IllegalArgumentException("capacity and stripes have to be positive.");
+        }
+        this.capacity = capacity;
+        this.store = store;
+        this.defaultName = ScoreLog.defaultName();
+        int count = Integer.highestOneBit(stripes);
+        this.stripes = new Stripe[count < stripes ? count << 1 : count];
+        for(int i = 0; i < this.stripes.length; i++){
+            this.stripes[i] = new Stripe();
+        }
+        if(store != null){
+            // the store keeps scores only, loaded scores rank ahead of any submitted later
+            Stripe stripe = this.stripes[0];
+            for(int score : store.read()){
+                if(score > 0){
+                    this.add(stripe, new ScoreRecord("", 0, score), false);
+                }
+            }
+        }
+    }
+
+    /**
+     * Submits a score under the name of the user running the game.
+     * @param score: The score, cannot be negative.
+     */
+    @Override
+    public void write(int score) {
+        this.submit(this.defaultName, score);
+    }
+
+    /**
+     * Submits a score, stamped with the current time.
+     * @param name: Name of the player.
+     * @param score: The score, cannot be negative.
+     */
+    public void submit(String name, int score){
+        if(score < 0){
+            throw new IllegalArgumentException("Score cannot be negative.");
+        }
+        this.submit(new ScoreRecord(name, System.currentTimeMillis(), score));
+    }
+
+    /**
+     * Submits a record to the stripe of the calling thread. Safe to call from any thread.
+     * @param record: The record.
+     */
+    public void submit(ScoreRecord record){
+        if(record == null){
+            throw new IllegalArgumentException("record cannot be null.");
+        }
+        this.add(this.stripeOf(Thread.currentThread()), record, true);
+    }
+
+    private Stripe stripeOf(Thread thread){
+        long id = thread.getId();
+        int hash = (int) (id ^ id >>> 32) * 0x9E3779B9;
+        return this.stripes[(hash ^ hash >>> 16) & (this.stripes.length - 1)];
+    }
+
+    private void add(Stripe stripe, ScoreRecord record, boolean unsaved){
+        synchronized(stripe){
+            count(stripe, record.score());
+            if(stripe.top.size() < this.capacity){
+                stripe.top.add(record);
+            }
+            else if(WORST_FIRST.compare(record, stripe.top.peek()) > 0){
+                stripe.top.poll();
+                stripe.top.add(record);
+            }
+            else{
+                return;
+            }
+            if(unsaved){
+                stripe.unsaved.add(record);
+            }
+        }
+        this.version.incrementAndGet();
+    }
+
+    private static void count(Stripe stripe, int score){
+        for(int i = bucketOf(score) + 1; i <= BUCKETS; i += i & -i){
+            stripe.counts[i]++;
+        }
+        stripe.total++;
+    }
+
+    /**
+     * @param score: A score, cannot be negative.
+     * @return The bucket the score is counted in, the score itself below EXACT_SCORES.
+     */
+    private static int bucketOf(int score){
+        if(score < EXACT_SCORES){
+            return score;
+        }
+        // the top OCTAVE_BITS + 1 bits of the score, the highest of them always set
+        int shift = 31 - Integer.numberOfLeadingZeros(score) - OCTAVE_BITS;
+        return EXACT_SCORES + (shift - 1) * BUCKETS_PER_OCTAVE + (score >>> shift) - BUCKETS_PER_OCTAVE;
+    }
+
+    /**
+     * @return Scores of the best records, best first.
+     */
+    @Override
+    public List<Integer> read() {
+        List<ScoreRecord> top = this.getTop();
+        List<Integer> scores = new ArrayList<>(top.size());
+        for(ScoreRecord record : top){
+            scores.add(record.score());
+        }
+        return scores;
+    }
+
+    /**
+     * Merges the heaps of all stripes into the best records overall. The merge is kept until a stripe changes,
+     * so reading an unchanged board is free.
+     * @return The best records, best first, at most capacity of them.
+     */
+    public List<ScoreRecord> getTop(){
+        Merged current = this.merged;
+        long version = this.version.get();
+        if(current.version() == version){
+            return current.records();
+        }
+        List<ScoreRecord> records = new ArrayList<>(this.capacity * 2);
+        for(Stripe stripe : this.stripes){
+            synchronized(stripe){
+                records.addAll(stripe.top);
+            }
+        }
+        records.sort(ScoreRecord.RANKING);
+        List<ScoreRecord> top = List.copyOf(records.subList(0, Math.min(records.size(), this.capacity)));
+        this.merged = new Merged(version, top);
+        return top;
+    }
+
+    /**
+     * The place a score submitted now would take among all scores submitted so far. Ties go to the earlier games,
+     * so the score places behind every equal one. From EXACT_SCORES on, it also places behind the lower scores of its bucket.
+     * Submissions racing the query may or may not be counted.
+     * @param score: The score, cannot be negative.
+     * @return The rank, 1 for the best.
+     */
+    public long rank(int score){
+        if(score < 0){
+            throw new IllegalArgumentException("Score cannot be negative.");
+        }
+        int bucket = bucketOf(score);
+        long rank = 1;
+        for(Stripe stripe : this.stripes){
+            synchronized(stripe){
+                long below = 0;
+                for(int i = bucket; i > 0; i -= i & -i){
+                    below += stripe.counts[i];
+                }
+                rank += stripe.total - below;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * @return The amount of scores submitted, including those loaded from the store.
+     */
+    public long getCount(){
+        long count = 0;
+        for(Stripe stripe : this.stripes){
+            synchronized(stripe){
+                count += stripe.total;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Writes the records which made the board since the last save to the store, worst first.
+     * Records pushed off the board again in the meantime are not written.
+     */
+    public synchronized void save(){
+        if(this.store == null){
+            return;
+        }
+        List<ScoreRecord> unsaved = new ArrayList<>();
+        for(Stripe stripe : this.stripes){
+            synchronized(stripe){
+                unsaved.addAll(stripe.unsaved);
+                stripe.unsaved = new ArrayList<>();
+            }
+        }
+        List<ScoreRecord> top = this.getTop();
+        unsaved.removeIf(record -> !top.contains(record));
+        unsaved.sort(WORST_FIRST);
+        for(ScoreRecord record : unsaved){
+            this.store.write(record.score());
+        }
+    }
+
+    public int getCapacity(){
+        return capacity;
+    }
+}
@@ -0,0 +1,120 @@
+package project;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+import project.metrics.GameMetrics;
+import project.metrics.LatencyHistogram;
+
+/**
+ * The metrics overlay draws the game metrics onto a canvas of its own, refreshed a few times a second.
+ * A hidden overlay is neither drawn nor updated. Numbers are drawn digit by digit from constant strings,
+ * so a visible overlay allocates nothing either.
+ */
+public class MetricsOverlay {
+	private static final long REFRESH_INTERVAL = 250_000_000L;
+	private static final Font FONT = Font.font("Monospaced", 12);
+	private static final Color BACKGROUND = Color.rgb(0, 0, 0, 0.6);
+	private static final Color FOREGROUND = Color.LIME;
+	private static final String[] DIGITS = {"0", "1", "2", "3", "4", "5", "6", "7", "8", "9"};
+	// column layout, in characters
+	private static final int NUMBER_WIDTH = 8;
+	private static final int LABEL_WIDTH = 8;
+
+	private final Canvas canvas;
+	private final GraphicsContext gc;
+	private final GameMetrics metrics;
+	private final double charWidth;
+	private final double lineHeight;
+	private boolean refresh = true;
+	private long lastUpdate = 0;
+
+	/**
+	 * Creates a hidden overlay.
+	 * @param canvas: Canvas reserved for the overlay.
+	 * @param metrics: The metrics to be shown.
+	 */
+	public MetricsOverlay(Canvas canvas, GameMetrics metrics){
+		if(canvas == null || metrics == null){
+			throw new IllegalArgumentException("canvas and metrics cannot be null.");
+		}
+		this.canvas = canvas;
+		this.gc = canvas.getGraphicsContext2D();
+		this.metrics = metrics;
+		Text probe = new Text("0");
+		probe.setFont(FONT);
+		this.charWidth = probe.getLayoutBounds().getWidth();
+		this.lineHeight = probe.getLayoutBounds().getHeight();
+		this.canvas.setVisible(false);
+	}
+
+	/**
+	 * Shows or hides the overlay.
+	 */
+	public void toggle(){
+		this.canvas.setVisible(!this.canvas.isVisible());
+		this.refresh = true;
+	}
+
+	/**
+	 * Redraws the overlay, if it is showing and has not been redrawn lately.
+	 * @param now: Current time in nanoseconds.
+	 */
+	public void update(long now){
+		if(!this.canvas.isVisible() || (!this.refresh && now - this.lastUpdate < REFRESH_INTERVAL)){
+			return;
+		}
+		this.refresh = false;
+		this.lastUpdate = now;
+		this.gc.clearRect(0, 0, this.canvas.getWidth(), this.canvas.getHeight());
+		this.gc.setFill(BACKGROUND);
+		this.gc.fillRect(0, 0, this.canvas.getWidth(), this.canvas.getHeight());
+		this.gc.setFill(FOREGROUND);
+		this.gc.setFont(FONT);
+
+		this.drawText("us", 0, 0);
+		this.drawText("p50", LABEL_WIDTH + NUMBER_WIDTH - 3, 0);
+		this.drawText("p99", LABEL_WIDTH + 2 * NUMBER_WIDTH - 3, 0);
+		this.drawText("max", LABEL_WIDTH + 3 * NUMBER_WIDTH - 3, 0);
+		this.drawLatencies("tick", this.metrics.getTicks(), 1);
+		this.drawLatencies("render", this.metrics.getRenders(), 2);
+		this.drawLatencies("input", this.metrics.getInputs(), 3);
+		this.drawText("locked", 0, 4);
+		this.drawNumber(this.metrics.getPiecesLocked(), LABEL_WIDTH + NUMBER_WIDTH, 4);
+		this.drawText("checks", 0, 5);
+		this.drawNumber(this.metrics.getCollisionChecks(), LABEL_WIDTH + 3 * NUMBER_WIDTH, 5);
+	}
+
+	private void drawLatencies(String label, LatencyHistogram histogram, int row){
+		this.drawText(label, 0, row);
+		this.drawNumber(histogram.getPercentile(50) / 1000, LABEL_WIDTH + NUMBER_WIDTH, row);
+		this.drawNumber(histogram.getPercentile(99) / 1000, LABEL_WIDTH + 2 * NUMBER_WIDTH, row);
+		this.drawNumber(histogram.getMax() / 1000, LABEL_WIDTH + 3 * NUMBER_WIDTH, row);
+	}
+
+	/**
+	 * @param text: Constant text, to allocate nothing.
+	 * @param column: Column of the first character.
+	 * @param row: Row of the text.
+	 */
+	private void drawText(String text, int column, int row){
+		this.gc.fillText(text, this.charWidth * (column + 1), this.lineHeight * (row + 1));
+	}
+
+	/**
+	 * Draws a non-negative number right aligned, one digit at a time.
+	 * @param value: The number.
+	 * @param endColumn: Column after the last digit.
+	 * @param row: Row of the number.
+	 */
+	private void drawNumber(long value, int endColumn, int row){
+		int column = endColumn;
+		do{
+			column--;
+			this.drawText(DIGITS[(int) (value % 10)], column, row);
+			value /= 10;
+		}while(value > 0);
+	}
+}
@@ -0,0 +1,92 @@
+package project;
+
+import javafx.scene.paint.Color;
+import project.engine.Tile;
+
+/**
+ * The palette maps the tile indices stored by the engine to the colors used when drawing.
+ */
+public final class Palette {
+	// piece color constants
+	private static final Color centerColor = Color.BLACK;
+	private static final Color tColor = Color.BLUE;
+	private static final Color iColor = Color.CORAL;
+	private static final Color sqColor = Color.YELLOW;
+	private static final Color l_1Color = Color.GREEN;
+	private static final Color l_2Color = Color.CHOCOLATE;
+	private static final Color z_1Color = Color.ORANGE;
+	private static final Color z_2Color = Color.DARKBLUE;
+
+	// opacity of the ghost piece, showing where the falling piece would land
+	private static final double GHOST_OPACITY = 0.3;
+
+	private static final Color[] COLORS = new Color[Tile.COUNT];
+	private static final Color[] GHOST_COLORS = new Color[Tile.COUNT];
+	// the same colors packed as ARGB, for drawing into pixel buffers
+	private static final int[] ARGB = new int[Tile.COUNT];
+	private static final int[] GHOST_ARGB = new int[Tile.COUNT];
+
+	static {
+		COLORS[Tile.CENTER] = centerColor;
+		COLORS[Tile.T] = tColor;
+		COLORS[Tile.I] = iColor;
+		COLORS[Tile.SQUARE] = sqColor;
+		COLORS[Tile.L_1] = l_1Color;
+		COLORS[Tile.L_2] = l_2Color;
+		COLORS[Tile.Z_1] = z_1Color;
+		COLORS[Tile.Z_2] = z_2Color;
+		for(int i = 0; i < Tile.COUNT; i++){
+			GHOST_COLORS[i] = COLORS[i] != null ? COLORS[i].deriveColor(0, 1, 1, GHOST_OPACITY) : null;
+			ARGB[i] = argb(COLORS[i]);
+			GHOST_ARGB[i] = argb(GHOST_COLORS[i]);
+		}
+	}
+
+	private Palette(){}
+
+	/**
+	 * @param index: Palette index, as stored on the board.
+	 * @return The color at the given index, null for empty tiles.
+	 */
+	public static Color colorOf(byte index){
+		return COLORS[index];
+	}
+
+	/**
+	 * @param index: Palette index, as stored on the board.
+	 * @return The translucent color the ghost of a piece of the given index is drawn in, null for empty tiles.
+	 */
+	public static Color ghostOf(byte index){
+		return GHOST_COLORS[index];
+	}
+
+	/**
+	 * @param index: Palette index, as stored on the board.
+	 * @return The color at the given index packed as ARGB, 0 (transparent) for empty tiles.
+	 */
+	public static int argbOf(byte index){
+		return ARGB[index];
+	}
+
+	/**
+	 * @param index: Palette index, as stored on the board.
+	 * @return The ghost color of the given index packed as ARGB, 0 (transparent) for empty tiles.
+	 */
+	public static int ghostArgbOf(byte index){
+		return GHOST_ARGB[index];
+	}
+
+	/**
+	 * @param color: A color, or null.
+	 * @return The color packed as ARGB, 0 for null.
+	 */
+	public static int argb(Color color){
+		if(color == null){
+			return 0;
+		}
+		return (int) Math.round(color.getOpacity() * 255) << 24
+				| (int) Math.round(color.getRed() * 255) << 16
+				| (int) Math.round(color.getGreen() * 255) << 8
+				| (int) Math.round(color.getBlue() * 255);
+	}
+}
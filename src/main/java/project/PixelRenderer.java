@@ -0,0 +1,263 @@
+package project;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.paint.Color;
+import project.engine.Board;
+import project.engine.Piece;
+import project.engine.PieceShapes;
+
+/**
+ * The pixel renderer rasterizes both layers into ARGB pixel buffers of its own, a block of pixels per tile,
+ * and hands each change to the canvas as a single setPixels call over the rectangle it touched.
+ * The cost of a call no longer grows with the amount of tiles drawn, so a full redraw of a crowded board is one
+ * bulk copy rather than a draw command per tile.
+ */
+public class PixelRenderer implements BoardRenderer {
+	private static final PixelFormat<IntBuffer> FORMAT = PixelFormat.getIntArgbInstance();
+	private static final int FRAME_ARGB = Palette.argb(Color.RED);
+	// matches the stroke width of the frame lines drawn by CanvasRenderer
+	private static final int FRAME_WIDTH = 5;
+
+	private final PixelWriter staticWriter;
+	private final PixelWriter pieceWriter;
+	private final int tileSize;
+	private final int width;
+	private final int height;
+	private final int[] staticPixels;
+	private final int[] piecePixels;
+
+	// pixels touched since the last push, as [left, right) and [top, bottom)
+	private int dirtyLeft;
+	private int dirtyTop;
+	private int dirtyRight;
+	private int dirtyBottom;
+	// pixels covered by the piece and ghost currently drawn, same form
+	private int drawnLeft = 0;
+	private int drawnTop = 0;
+	private int drawnRight = 0;
+	private int drawnBottom = 0;
+	// what was drawn by the last call to drawPiece(), to skip frames where nothing moved
+	private boolean drawn = false;
+	private int drawnTemplate;
+	private int drawnDirection;
+	private int drawnRotation;
+	private int drawnX;
+	private int drawnY;
+	private int drawnOffsetX = 0;
+	private int drawnOffsetY = 0;
+	private int drawnGhostDistance = 0;
+
+	/**
+	 * @param staticGc: Graphics context of the static layer.
+	 * @param pieceGc: Graphics context of the piece layer, stacked on top of the static layer.
+	 * @param tileSize: Side length of a tile in pixels.
+	 */
+	public PixelRenderer(GraphicsContext staticGc, GraphicsContext pieceGc, int tileSize){
+		if(staticGc == null || pieceGc == null){
+			throw new IllegalArgumentException("gc cannot be null.");
+		}
+		if(tileSize <= 0){
+			throw new IllegalArgumentException("tileSize must be positive.");
+		}
+		this.staticWriter = staticGc.getPixelWriter();
+		this.pieceWriter = pieceGc.getPixelWriter();
+		this.tileSize = tileSize;
+		this.width = (int) staticGc.getCanvas().getWidth();
+		this.height = (int) staticGc.getCanvas().getHeight();
+		this.staticPixels = new int[this.width * this.height];
+		this.piecePixels = new int[this.width * this.height];
+		this.clean();
+	}
+
+	@Override
+	public void reset(Board board){
+		if(board == null){
+			throw new IllegalArgumentException("board cannot be null.");
+		}
+		int gridWidth = board.getGridWidth();
+		int gridHeight = board.getGridHeight();
+		Arrays.fill(staticPixels, 0);
+		drawFrame(gridWidth, gridHeight, 1);
+		drawFrame(gridWidth, gridHeight, (double) Piece.ZONE_NUMERATOR / Piece.ZONE_DENOMINATOR);
+		board.forEachTile((x, y, color) -> fill(staticPixels, x * tileSize, y * tileSize, Palette.argbOf(color)));
+		staticWriter.setPixels(0, 0, width, height, FORMAT, staticPixels, 0, width);
+
+		Arrays.fill(piecePixels, 0);
+		pieceWriter.setPixels(0, 0, width, height, FORMAT, piecePixels, 0, width);
+		drawnLeft = drawnTop = drawnRight = drawnBottom = 0;
+		drawn = false;
+		clean();
+	}
+
+	@Override
+	public void drawLocked(Piece lockedPiece){
+		if(lockedPiece == null){
+			throw new IllegalArgumentException("lockedPiece cannot be null.");
+		}
+		fillPiece(staticPixels, lockedPiece, 0, 0, 0, Palette.argbOf(lockedPiece.getColorIndex()));
+		push(staticWriter, staticPixels);
+	}
+
+	/**
+	 * Clears the pixels of the piece and ghost drawn last, rasterizes the new ones, and pushes the rectangle covering
+	 * both. Frames where nothing moved are skipped.
+	 */
+	@Override
+	public void drawPiece(Piece currentPiece, int offsetX, int offsetY, int ghostDistance){
+		if(currentPiece == null){
+			throw new IllegalArgumentException("currentPiece cannot be null.");
+		}
+		if(samePose(currentPiece) && offsetX == drawnOffsetX && offsetY == drawnOffsetY && ghostDistance == drawnGhostDistance){
+			return;
+		}
+		int oldLeft = drawnLeft;
+		int oldTop = drawnTop;
+		int oldRight = drawnRight;
+		int oldBottom = drawnBottom;
+		for(int y = oldTop; y < oldBottom; y++){
+			Arrays.fill(piecePixels, y * width + oldLeft, y * width + oldRight, 0);
+		}
+		// the ghost is drawn first, as the piece covers it when drawn in between tiles
+		if(ghostDistance > 0){
+			fillPiece(piecePixels, currentPiece, 0, 0, ghostDistance, Palette.ghostArgbOf(currentPiece.getColorIndex()));
+		}
+		fillPiece(piecePixels, currentPiece, offsetX, offsetY, 0, Palette.argbOf(currentPiece.getColorIndex()));
+		drawnLeft = dirtyLeft;
+		drawnTop = dirtyTop;
+		drawnRight = dirtyRight;
+		drawnBottom = dirtyBottom;
+		// the cleared pixels are pushed along with the filled ones
+		if(dirtyLeft >= dirtyRight || dirtyTop >= dirtyBottom){
+			dirtyLeft = oldLeft;
+			dirtyTop = oldTop;
+			dirtyRight = oldRight;
+			dirtyBottom = oldBottom;
+		}
+		else if(oldLeft < oldRight && oldTop < oldBottom){
+			dirtyLeft = Math.min(dirtyLeft, oldLeft);
+			dirtyTop = Math.min(dirtyTop, oldTop);
+			dirtyRight = Math.max(dirtyRight, oldRight);
+			dirtyBottom = Math.max(dirtyBottom, oldBottom);
+		}
+		push(pieceWriter, piecePixels);
+
+		drawn = true;
+		drawnTemplate = currentPiece.getTemplate();
+		drawnDirection = currentPiece.getDirection();
+		drawnRotation = currentPiece.getRotation();
+		drawnX = currentPiece.getXPos();
+		drawnY = currentPiece.getYPos();
+		drawnOffsetX = offsetX;
+		drawnOffsetY = offsetY;
+		drawnGhostDistance = ghostDistance;
+	}
+
+	/**
+	 * @return Returns true if the piece is where, and as, it was last drawn.
+	 */
+	private boolean samePose(Piece piece){
+		return drawn
+				&& piece.getTemplate() == drawnTemplate
+				&& piece.getDirection() == drawnDirection
+				&& piece.getRotation() == drawnRotation
+				&& piece.getXPos() == drawnX
+				&& piece.getYPos() == drawnY;
+	}
+
+	/**
+	 * Fills the tiles of a piece moved by a distance along its fall direction. For a ghost (distance above 0),
+	 * tiles falling on the piece itself are left out.
+	 * @param pixels: Buffer to fill.
+	 * @param piece: The piece.
+	 * @param offsetX: Horizontal offset from the tile grid in pixels.
+	 * @param offsetY: Vertical offset from the tile grid in pixels.
+	 * @param distance: Tiles to move the piece by.
+	 * @param argb: The color.
+	 */
+	private void fillPiece(int[] pixels, Piece piece, int offsetX, int offsetY, int distance, int argb){
+		int mask = piece.getMask();
+		int dx = piece.getFallX() * distance;
+		int dy = piece.getFallY() * distance;
+		for(int remaining = mask; remaining != 0; remaining &= remaining - 1){
+			int bit = Integer.numberOfTrailingZeros(remaining);
+			int x = bit % PieceShapes.MAX_SIZE + dx;
+			int y = bit / PieceShapes.MAX_SIZE + dy;
+			if(distance > 0 && x >= 0 && y >= 0 && x < PieceShapes.MAX_SIZE && y < PieceShapes.MAX_SIZE
+					&& (mask & 1 << (y * PieceShapes.MAX_SIZE + x)) != 0){
+				continue;
+			}
+			fill(pixels, (piece.getXPos() + x) * tileSize + offsetX, (piece.getYPos() + y) * tileSize + offsetY, argb);
+		}
+	}
+
+	/**
+	 * Fills one tile sized block, clipped to the buffer, and adds it to the dirty rectangle.
+	 */
+	private void fill(int[] pixels, int pixelX, int pixelY, int argb){
+		fillRect(pixels, pixelX, pixelY, pixelX + tileSize, pixelY + tileSize, argb);
+	}
+
+	private void fillRect(int[] pixels, int left, int top, int right, int bottom, int argb){
+		left = Math.max(left, 0);
+		top = Math.max(top, 0);
+		right = Math.min(right, width);
+		bottom = Math.min(bottom, height);
+		if(left >= right || top >= bottom){
+			return;
+		}
+		for(int y = top; y < bottom; y++){
+			Arrays.fill(pixels, y * width + left, y * width + right, argb);
+		}
+		if(dirtyLeft >= dirtyRight || dirtyTop >= dirtyBottom){
+			dirtyLeft = left;
+			dirtyTop = top;
+			dirtyRight = right;
+			dirtyBottom = bottom;
+		}
+		else{
+			dirtyLeft = Math.min(dirtyLeft, left);
+			dirtyTop = Math.min(dirtyTop, top);
+			dirtyRight = Math.max(dirtyRight, right);
+			dirtyBottom = Math.max(dirtyBottom, bottom);
+		}
+	}
+
+	/**
+	 * Strokes a frame square into the static buffer, at the same place CanvasRenderer.drawRect() does.
+	 */
+	private void drawFrame(int gridWidth, int gridHeight, double percentage){
+		int frameWidth = gridWidth * tileSize;
+		int frameHeight = gridHeight * tileSize;
+		int transformedX = (int) Math.floor(gridWidth * percentage) * tileSize;
+		int transformedY = (int) Math.floor(gridHeight * percentage) * tileSize;
+		int near = FRAME_WIDTH / 2;
+		int far = FRAME_WIDTH - near;
+		int left = Math.min(frameWidth - transformedX, transformedX);
+		int right = Math.max(frameWidth - transformedX, transformedX);
+		int top = Math.min(frameHeight - transformedY, transformedY);
+		int bottom = Math.max(frameHeight - transformedY, transformedY);
+		fillRect(staticPixels, left - near, top - near, right + far, top + far, FRAME_ARGB);
+		fillRect(staticPixels, left - near, bottom - near, right + far, bottom + far, FRAME_ARGB);
+		fillRect(staticPixels, left - near, top - near, left + far, bottom + far, FRAME_ARGB);
+		fillRect(staticPixels, right - near, top - near, right + far, bottom + far, FRAME_ARGB);
+	}
+
+	/**
+	 * Hands the dirty rectangle of a buffer to its layer in one call.
+	 */
+	private void push(PixelWriter writer, int[] pixels){
+		if(dirtyLeft < dirtyRight && dirtyTop < dirtyBottom){
+			writer.setPixels(dirtyLeft, dirtyTop, dirtyRight - dirtyLeft, dirtyBottom - dirtyTop,
+					FORMAT, pixels, dirtyTop * width + dirtyLeft, width);
+		}
+		clean();
+	}
+
+	private void clean(){
+		dirtyLeft = dirtyTop = dirtyRight = dirtyBottom = 0;
+	}
+}
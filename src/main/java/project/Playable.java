@@ -0,0 +1,47 @@
+package project;
+
+import javafx.scene.input.KeyEvent;
+
+/**
+ * What the controller needs of a game, whether it is played locally (Game) or on a server (RemoteGame).
+ */
+public interface Playable {
+	/**
+	 * Starts, or unpauses, the game.
+	 */
+	void start();
+
+	/**
+	 * Pauses the game.
+	 */
+	void stop();
+
+	/**
+	 * Starts the game with the music from the top.
+	 */
+	void restart();
+
+	/**
+	 * Stops the game for good, releasing what it holds.
+	 */
+	void dispose();
+
+	/**
+	 * @param key: The key event to be handled.
+	 */
+	void handleKeyPress(KeyEvent key);
+
+	/**
+	 * @param key: The key event to be handled.
+	 */
+	void handleKeyRelease(KeyEvent key);
+
+	boolean isPaused();
+
+	boolean isLost();
+
+	/**
+	 * @return The score the game was lost with.
+	 */
+	int getScore();
+}
@@ -0,0 +1,245 @@
+package project;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import javafx.animation.AnimationTimer;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import project.engine.Action;
+import project.engine.Board;
+import project.engine.Engine;
+import project.engine.Piece;
+import project.net.GameClient;
+import project.net.GameServer;
+
+/**
+ * A remote game is played on a GameServer, and only drawn here: key presses are sent to the server,
+ * and the frames it sends back are drawn once per JavaFX frame.
+ * The server keeps time, so unlike a local game a remote one cannot be paused.
+ */
+public class RemoteGame implements Playable, GameClient.Listener {
+	// constants
+	private final GameController GAME_CONTROLLER;
+	private final BoardRenderer RENDERER;
+	private final SoundHandler SOUND_HANDLER;
+	private final GameClient CLIENT;
+	private final AnimationTimer LOOP;
+	private final int GRID_WIDTH;
+	private final int GRID_HEIGHT;
+	// frames received by the client thread, applied on the JavaFX thread
+	private final Queue<Runnable> updates = new ConcurrentLinkedQueue<>();
+	private final InputQueue INPUTS = new InputQueue(Game.DAS, Game.ARR);
+
+	// client thread only
+	private Board board = null;
+
+	private Piece piece = null;
+	private boolean started = false;
+	private boolean disposed = false;
+	private boolean lost = false;
+	private int score = 0;
+
+	/**
+	 * Connects to a server, the game starts once start() is called.
+	 * @param CANVAS_WIDTH: The width of drawing surface in pixels.
+	 * @param CANVAS_HEIGHT: The height of drawing surface in pixels.
+	 * @param SOUND_HANDLER: Sound handler instance.
+	 * @param GAME_CONTROLLER: JavaFX controller instance.
+	 * @param server: Server address, host[:port].
+	 * @throws IOException if the server cannot be reached.
+	 */
+	public RemoteGame(int CANVAS_WIDTH, int CANVAS_HEIGHT, SoundHandler SOUND_HANDLER, GameController GAME_CONTROLLER, String server) throws IOException {
+		if(SOUND_HANDLER == null){
+			throw new IllegalArgumentException("SOUND_HANDLER cannot be null.");
+		}
+		if(GAME_CONTROLLER == null){
+			throw new IllegalArgumentException("GAME_CONTROLLER cannot be null.");
+		}
+		this.GAME_CONTROLLER = GAME_CONTROLLER;
+		this.RENDERER = BoardRenderer.create(System.getProperty(Game.RENDERER_PROPERTY), GAME_CONTROLLER.getStaticGc(), GAME_CONTROLLER.getGc(), Game.TILE_SIZE);
+		this.SOUND_HANDLER = SOUND_HANDLER;
+		this.GRID_WIDTH = CANVAS_WIDTH / Game.TILE_SIZE;
+		this.GRID_HEIGHT = CANVAS_HEIGHT / Game.TILE_SIZE;
+		int colon = server.lastIndexOf(':');
+		String host = colon < 0 ? server : server.substring(0, colon);
+		int port = colon < 0 ? GameServer.DEFAULT_PORT : Integer.parseInt(server.substring(colon + 1));
+		this.CLIENT = new GameClient(host, port, this);
+		this.LOOP = new AnimationTimer() {
+			@Override
+			public void handle(long now) {
+				render(now);
+			}
+		};
+	}
+
+	/**
+	 * Joins a game on the server the first time, and starts drawing and music.
+	 */
+	public void start(){
+		if(!this.started){
+			this.started = true;
+			try{
+				this.CLIENT.join(this.GRID_WIDTH, this.GRID_HEIGHT);
+			}
+			catch(IOException e){
+				System.out.println("Could not join game: " + e);
+			}
+		}
+		this.LOOP.start();
+		this.SOUND_HANDLER.playMusic();
+	}
+
+	/**
+	 * Does nothing, the game goes on on the server.
+	 */
+	public void stop(){
+	}
+
+	public void restart(){
+		this.SOUND_HANDLER.stopMusic();
+		this.start();
+	}
+
+	/**
+	 * Leaves the server, and gives the sound players back to the audio cache.
+	 */
+	public void dispose(){
+		this.disposed = true;
+		this.LOOP.stop();
+		this.CLIENT.close();
+		this.SOUND_HANDLER.stopMusic();
+		this.SOUND_HANDLER.release();
+	}
+
+	/**
+	 * Queues the input, to be sent to the server on the next frame. The piece moves once the server says so.
+	 * @param key: The key event to be handled.
+	 */
+	public void handleKeyPress(KeyEvent key){
+		if(this.lost){
+			return;
+		}
+		if(key.getCode() == KeyCode.M){
+			this.SOUND_HANDLER.toggleMute();
+			return;
+		}
+		Action action = InputQueue.bindingOf(key.getCode());
+		if(action != null){
+			this.INPUTS.press(action, System.nanoTime());
+		}
+	}
+
+	/**
+	 * Stops a held key from repeating.
+	 * @param key: The key event to be handled.
+	 */
+	public void handleKeyRelease(KeyEvent key){
+		Action action = InputQueue.bindingOf(key.getCode());
+		if(action != null){
+			this.INPUTS.release(action);
+		}
+	}
+
+	/**
+	 * Sends one input to the server.
+	 * @return Returns false, the outcome is not known until the server replies, so with an ARR of 0 a held key is sent
+	 * once per frame.
+	 */
+	private boolean send(Action action, long time){
+		try{
+			this.CLIENT.input(action);
+		}
+		catch(IOException e){
+			System.out.println("Could not send input: " + e);
+		}
+		return false;
+	}
+
+	/**
+	 * Sends the inputs made since the last frame, applies what the server sent, and draws the piece where it ended up.
+	 */
+	private void render(long now){
+		if(!this.lost){
+			this.INPUTS.drain(now, this::send);
+		}
+		for(Runnable update; (update = this.updates.poll()) != null;){
+			update.run();
+		}
+		if(this.piece != null && !this.lost){
+			this.RENDERER.drawPiece(this.piece, 0, 0);
+		}
+	}
+
+	/**
+	 * Sets relevant states when a game is lost, or the server is gone.
+	 */
+	private void loss(){
+		this.lost = true;
+		this.LOOP.stop();
+		this.SOUND_HANDLER.stopMusic();
+		this.GAME_CONTROLLER.loss();
+	}
+
+	/*
+	 * -----------------------------------
+	 * Client thread, see GameClient.Listener.
+	 * -----------------------------------
+	 */
+
+	@Override
+	public void welcome(long seed, Board board){
+		this.board = board;
+		Board copy = new Board(board);
+		this.updates.add(() -> this.RENDERER.reset(copy));
+	}
+
+	@Override
+	public void frame(int flags, int score, Piece piece, Piece locked){
+		// the client keeps changing its board, so the renderer is handed a copy when the whole of it is to be redrawn
+		Board cleared = (flags & Engine.CLEARED) != 0 ? new Board(this.board) : null;
+		this.updates.add(() -> {
+			if((flags & Engine.LANDED) != 0){
+				this.SOUND_HANDLER.playSFX();
+			}
+			if(cleared != null){
+				this.RENDERER.reset(cleared);
+			}
+			else if(locked != null){
+				this.RENDERER.drawLocked(locked);
+			}
+			this.piece = piece;
+			this.score = score;
+			if((flags & Engine.LOST) != 0){
+				this.loss();
+			}
+		});
+	}
+
+	@Override
+	public void closed(){
+		this.updates.add(() -> {
+			if(!this.lost && !this.disposed){
+				System.out.println("Server closed the game.");
+				this.loss();
+			}
+		});
+	}
+
+	/*
+	 * --------------
+	 * Getter methods
+	 * --------------
+	 */
+	public boolean isPaused(){
+		return !started;
+	}
+
+	public boolean isLost(){
+		return lost;
+	}
+
+	public int getScore(){
+		return score;
+	}
+}
@@ -0,0 +1,343 @@
+package project;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.zip.CRC32;
+
+/**
+ * The score log keeps the scoreboard as an append-only log of checksummed records, and the best scores in memory.
+ * Submitting a score appends one record, the file is never rewritten in place.
+ * A write cut short by a crash leaves a torn record at the end of the log, which fails its checksum and is cut off on the next open.
+ * Once the log holds many records it is compacted down to the best ones, by writing them to a new file
+ * which atomically replaces the log.
+ *
+ * Records are only forced to disk by sync(), close() and compaction, so a power loss may drop the latest scores,
+ * but never corrupts the ones before.
+ *
+ * Format, big endian: magic (int), version (byte), then records of
+ * payload length (int), CRC32 of the payload (int), payload: timestamp (long), score (int), name length (short), UTF-8 name.
+ */
+public class ScoreLog implements FileIO, AutoCloseable {
+    public static final int MAGIC = 0x54534C47; // "TSLG"
+    public static final byte VERSION = 1;
+    public static final int DEFAULT_CAPACITY = 10;
+    public static final int MAX_NAME_LENGTH = 32;
+    private static final int HEADER_SIZE = Integer.BYTES + 1;
+    private static final int RECORD_HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int MAX_PAYLOAD = Long.BYTES + Integer.BYTES + Short.BYTES + MAX_NAME_LENGTH * 4;
+    // records logged before the log is compacted, per record kept
+    private static final int COMPACT_FACTOR = 256;
+
+    private final Path path;
+    private final int capacity;
+    private final String defaultName;
+    // the best records, best first, at most capacity of them
+    private final TreeSet<ScoreRecord> top = new TreeSet<>(ScoreRecord.RANKING);
+    private final ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_SIZE + MAX_PAYLOAD);
+    private final CRC32 crc = new CRC32();
+    private FileChannel channel = null;
+    // records in the log file, kept or not
+    private int logged = 0;
+
+    /**
+     * Opens the log keeping the DEFAULT_CAPACITY best scores, creating it if needed.
+     * @param path: The log file.
+     */
+    public ScoreLog(Path path){
+        this(path, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Opens the log, creating it if needed. If the log cannot be opened, scores are kept in memory only.
+     * @param path: The log file.
+     * @param capacity: The amount of best scores kept.
+     */
+    public ScoreLog(Path path, int capacity){
+        if(path == null){
+            throw new IllegalArgumentException("path cannot be null.");
+        }
+        if(capacity <= 0){
+            throw new IllegalArgumentException("capacity has to be positive.");
+        }
+        this.path = path;
+        this.capacity = capacity;
+        this.defaultName = defaultName();
+        try{
+            this.open();
+        }catch(IOException e){
+            System.out.println("Could not open score log, scores will not be saved: " + e);
+            this.channel = null;
+        }
+    }
+
+    /**
+     * @return The name of the user running the game, cut to MAX_NAME_LENGTH characters.
+     */
+    public static String defaultName(){
+        String user = System.getProperty("user.name", "");
+        return user.length() > MAX_NAME_LENGTH ? user.substring(0, MAX_NAME_LENGTH) : user;
+    }
+
+    /**
+     * Opens the log file, loading its valid records and cutting off a torn tail.
+     * A file which is not a score log is moved aside rather than overwritten.
+     */
+    private void open() throws IOException {
+        Path parent = this.path.toAbsolutePath().getParent();
+        if(parent != null){
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(this.path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = this.channel.size();
+        if(size == 0){
+            this.writeHeader(this.channel);
+            return;
+        }
+        ByteBuffer content = ByteBuffer.allocate((int) Math.min(size, Integer.MAX_VALUE));
+        while(content.hasRemaining() && this.channel.read(content, content.position()) > 0){}
+        content.flip();
+        if(content.remaining() < HEADER_SIZE || content.getInt() != MAGIC || content.get() != VERSION){
+            this.channel.close();
+            Path aside = this.path.resolveSibling(this.path.getFileName() + ".corrupt");
+            Files.move(this.path, aside, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("Score log was unreadable, moved to " + aside + ".");
+            this.open();
+            return;
+        }
+        long valid = content.position();
+        while(true){
+            ScoreRecord record = this.decode(content);
+            if(record == null){
+                break;
+            }
+            this.index(record);
+            this.logged++;
+            valid = content.position();
+        }
+        if(valid < size){
+            System.out.println("Score log ended in a torn record, dropped " + (size - valid) + " bytes.");
+            this.channel.truncate(valid);
+        }
+        this.channel.position(valid);
+    }
+
+    private void writeHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).put(VERSION).flip();
+        while(header.hasRemaining()){
+            channel.write(header);
+        }
+    }
+
+    /**
+     * Reads the next record, verifying its length and checksum.
+     * @param content: The log, positioned at a record.
+     * @return The record, null if the log ends or the record is torn, leaving the position unspecified.
+     */
+    private ScoreRecord decode(ByteBuffer content){
+        if(content.remaining() < RECORD_HEADER_SIZE){
+            return null;
+        }
+        int length = content.getInt();
+        int checksum = content.getInt();
+        if(length < Long.BYTES + Integer.BYTES + Short.BYTES || length > MAX_PAYLOAD || content.remaining() < length){
+            return null;
+        }
+        this.crc.reset();
+        this.crc.update(content.slice(content.position(), length));
+        if((int) this.crc.getValue() != checksum){
+            return null;
+        }
+        long timestamp = content.getLong();
+        int score = content.getInt();
+        int nameLength = content.getShort();
+        if(nameLength != length - (Long.BYTES + Integer.BYTES + Short.BYTES) || score < 0){
+            return null;
+        }
+        byte[] name = new byte[nameLength];
+        content.get(name);
+        return new ScoreRecord(new String(name, StandardCharsets.UTF_8), timestamp, score);
+    }
+
+    /**
+     * Adds a record to the best scores, if it makes it.
+     */
+    private void index(ScoreRecord record){
+        if(this.top.size() < this.capacity || ScoreRecord.RANKING.compare(record, this.top.last()) < 0){
+            this.top.add(record);
+            if(this.top.size() > this.capacity){
+                this.top.pollLast();
+            }
+        }
+    }
+
+    /**
+     * Encodes a record into the write buffer.
+     */
+    private void encode(ScoreRecord record){
+        byte[] name = record.name().getBytes(StandardCharsets.UTF_8);
+        int length = Long.BYTES + Integer.BYTES + Short.BYTES + name.length;
+        this.buffer.clear();
+        this.buffer.position(RECORD_HEADER_SIZE);
+        this.buffer.putLong(record.timestamp()).putInt(record.score()).putShort((short) name.length).put(name);
+        this.crc.reset();
+        this.crc.update(this.buffer.array(), RECORD_HEADER_SIZE, length);
+        this.buffer.putInt(0, length).putInt(Integer.BYTES, (int) this.crc.getValue());
+        this.buffer.flip();
+    }
+
+    /**
+     * @return The best scores, best first.
+     */
+    @Override
+    public synchronized List<Integer> read() {
+        List<Integer> scores = new ArrayList<>(this.top.size());
+        for(ScoreRecord record : this.top){
+            scores.add(record.score());
+        }
+        return scores;
+    }
+
+    /**
+     * Submits a score under the name of the user running the game.
+     * @param score: Score to be written to the log.
+     */
+    @Override
+    public void write(int score) {
+        this.write(this.defaultName, score);
+    }
+
+    /**
+     * Submits a score, stamped with the current time.
+     * @param name: Name of the player, at most MAX_NAME_LENGTH characters.
+     * @param score: Score to be written to the log.
+     */
+    public void write(String name, int score) {
+        this.write(new ScoreRecord(name, System.currentTimeMillis(), score));
+    }
+
+    /**
+     * Appends a record to the log, compacting the log once it has grown large.
+     * A record which cannot be written is still kept among the best scores in memory.
+     * @param record: The record to be written, its name at most MAX_NAME_LENGTH characters.
+     */
+    public synchronized void write(ScoreRecord record) {
+        try{
+            this.append(record);
+        }catch(IOException e){
+            System.out.println("Could not write to score log: " + e);
+        }
+    }
+
+    /**
+     * Appends a record to the log like write(), but reports a record which did not reach the file.
+     * @param record: The record to be written, its name at most MAX_NAME_LENGTH characters.
+     * @throws IOException If the record could not be written, or the log is not open and scores are kept in memory only.
+     */
+    public synchronized void append(ScoreRecord record) throws IOException {
+        if(record == null || record.name().length() > MAX_NAME_LENGTH){
+            throw new IllegalArgumentException("record cannot be null, nor its name longer than " + MAX_NAME_LENGTH + " characters.");
+        }
+        this.index(record);
+        if(this.channel == null){
+            throw new IOException("Score log is not open, the score is kept in memory only.");
+        }
+        this.encode(record);
+        while(this.buffer.hasRemaining()){
+            this.channel.write(this.buffer);
+        }
+        this.logged++;
+        if(this.logged >= this.capacity * COMPACT_FACTOR){
+            // the record is in the log already, a failed compaction leaves the log as it was
+            try{
+                this.compact();
+            }catch(IOException e){
+                System.out.println("Could not compact score log: " + e);
+            }
+        }
+    }
+
+    /**
+     * Rewrites the log with the best records only. The new log is written next to the old one,
+     * forced to disk and moved over it, so a crash leaves either of them complete.
+     * If the new log cannot be written or moved, it is deleted and the old log stays open as it was.
+     * @throws IOException If compacting failed, the log is still usable then.
+     */
+    public synchronized void compact() throws IOException {
+        if(this.channel == null){
+            return;
+        }
+        Path temporary = this.path.resolveSibling(this.path.getFileName() + ".tmp");
+        try{
+            try(FileChannel compacted = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)){
+                this.writeHeader(compacted);
+                for(ScoreRecord record : this.top){
+                    this.encode(record);
+                    while(this.buffer.hasRemaining()){
+                        compacted.write(this.buffer);
+                    }
+                }
+                compacted.force(true);
+            }
+            this.channel.close();
+            this.channel = null;
+            try{
+                Files.move(temporary, this.path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }finally{
+                // the log at the path is whole either way, the compacted one or the old one
+                this.channel = FileChannel.open(this.path, StandardOpenOption.WRITE);
+                this.channel.position(this.channel.size());
+            }
+        }catch(IOException e){
+            try{
+                Files.deleteIfExists(temporary);
+            }catch(IOException suppressed){
+                e.addSuppressed(suppressed);
+            }
+            // tried again once as many records have been logged again
+            this.logged = this.top.size();
+            throw e;
+        }
+        this.logged = this.top.size();
+    }
+
+    /**
+     * Forces the records written so far to disk.
+     */
+    public synchronized void sync() throws IOException {
+        if(this.channel != null){
+            this.channel.force(false);
+        }
+    }
+
+    /**
+     * Forces the log to disk and closes it, later scores are kept in memory only.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if(this.channel != null){
+            this.channel.force(false);
+            this.channel.close();
+            this.channel = null;
+        }
+    }
+
+    /**
+     * @return The best records, best first.
+     */
+    public synchronized List<ScoreRecord> getTop(){
+        return new ArrayList<>(this.top);
+    }
+
+    public Path getPath(){
+        return path;
+    }
+}
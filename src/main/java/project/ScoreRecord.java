@@ -0,0 +1,26 @@
+package project;
+
+import java.util.Comparator;
+
+/**
+ * A score record is one finished game on the scoreboard.
+ * @param name: Name of the player.
+ * @param timestamp: When the game was finished, in milliseconds since the epoch.
+ * @param score: The score of the game.
+ */
+public record ScoreRecord(String name, long timestamp, int score) {
+    // best first: higher scores, then earlier games, then names
+    public static final Comparator<ScoreRecord> RANKING = Comparator
+            .comparingInt(ScoreRecord::score).reversed()
+            .thenComparingLong(ScoreRecord::timestamp)
+            .thenComparing(ScoreRecord::name);
+
+    public ScoreRecord {
+        if(name == null){
+            throw new IllegalArgumentException("name cannot be null.");
+        }
+        if(score < 0){
+            throw new IllegalArgumentException("Score cannot be negative.");
+        }
+    }
+}
@@ -1,63 +1,39 @@
 package project;
 
-import javafx.scene.media.Media;
 import javafx.scene.media.MediaPlayer;
 import javafx.util.Duration;
-import java.net.URL;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Random;
+import project.engine.Rng;
 
 /**
- * The sound handler class functions as a container for all sound related functionality.
- * Sound loading is hard coded into the constructor as more advanced measures aren't needed for the surrounding setting.
+ * The sound handler class functions as a container for all sound related functionality of one game.
+ * The players themselves are borrowed from the shared audio cache, so creating a sound handler is cheap,
+ * and it has to be released once its game is done.
+ * Clips still loading, or missing, are skipped.
  * A logical feature extension is playlist functionality for the main song player, to add multiple soundtracks.
  */
 public class SoundHandler {
-
-    MediaPlayer song1Player;
-    List<MediaPlayer> dropSfx = new ArrayList<>();
+    private final AudioCache audioCache;
+    private final Rng random = new Rng(System.nanoTime());
     private boolean muted = false;
+    private boolean musicPlaying = false;
+    private boolean released = false;
 
     /**
-     * Constructor loads sound files into media player objects, and sets some parameters on these objects.
+     * Borrows the players of the shared audio cache.
      */
     public SoundHandler(){
-        /*
-         * Exception handling should be implemented on the individual sound loads.
-         * Currently a file not found will result in subsequent loads not being attempted.
-         */
-        try{
-            URL song1URL = getClass().getResource("/sound/song1.mp3");
-            song1Player = new MediaPlayer(new Media(song1URL.toString()));
-            song1Player.setVolume(0.25);
-            song1Player.setOnEndOfMedia(() -> {
-                song1Player.seek(Duration.ZERO);
-                song1Player.play();
-            });
-            URL dropSfx1URL = getClass().getResource("/sound/sfx1.mp3");
-            URL dropSfx2URL = getClass().getResource("/sound/sfx2.mp3");
-            URL dropSfx3URL = getClass().getResource("/sound/sfx3.mp3");
-            URL dropSfx4URL = getClass().getResource("/sound/sfx4.mp3");
-            URL dropSfx5URL = getClass().getResource("/sound/sfx5.mp3");
-            URL dropSfx6URL = getClass().getResource("/sound/sfx6.mp3");
-            URL dropSfx7URL = getClass().getResource("/sound/sfx7.mp3");
-            URL dropSfx8URL = getClass().getResource("/sound/sfx8.mp3");
-            dropSfx.add(new MediaPlayer(new Media(dropSfx1URL.toString())));
-            dropSfx.add(new MediaPlayer(new Media(dropSfx2URL.toString())));
-            dropSfx.add(new MediaPlayer(new Media(dropSfx3URL.toString())));
-            dropSfx.add(new MediaPlayer(new Media(dropSfx4URL.toString())));
-            dropSfx.add(new MediaPlayer(new Media(dropSfx5URL.toString())));
-            dropSfx.add(new MediaPlayer(new Media(dropSfx6URL.toString())));
-            dropSfx.add(new MediaPlayer(new Media(dropSfx7URL.toString())));
-            dropSfx.add(new MediaPlayer(new Media(dropSfx8URL.toString())));
-            for(MediaPlayer sfx : dropSfx){
-                sfx.setVolume(0.6);
-            }
-        }
-        catch(Exception filesNotFound) {
-            System.out.println("Files missing, some sounds may not play.");
+        this(AudioCache.shared());
+    }
+
+    /**
+     * @param audioCache: The cache to borrow players from.
+     */
+    public SoundHandler(AudioCache audioCache){
+        if(audioCache == null){
+            throw new IllegalArgumentException("audioCache cannot be null.");
         }
+        this.audioCache = audioCache;
+        this.audioCache.borrow();
     }
 
     /**
@@ -65,36 +41,75 @@ public class SoundHandler {
      */
     public void toggleMute(){
         muted = !muted;
-        for(MediaPlayer sfx : dropSfx){
-            sfx.setMute(muted);
+        for(String clip : AudioCache.DROP_SFX){
+            this.mute(audioCache.get(clip));
+        }
+        this.mute(audioCache.get(AudioCache.SONG));
+    }
+
+    private void mute(MediaPlayer player){
+        if(player != null){
+            player.setMute(muted);
         }
-        song1Player.setMute(muted);
     }
 
     /**
-     * Plays a random sound from the SFX array.
+     * Plays a random sound from the SFX clips.
      */
     public void playSFX(){
-        Random random = new Random();
-        MediaPlayer sfx = dropSfx.get(random.nextInt(dropSfx.size()));
-        sfx.play();
-        sfx.seek(Duration.ZERO);
+        MediaPlayer sfx = audioCache.get(AudioCache.DROP_SFX.get(random.nextInt(AudioCache.DROP_SFX.size())));
+        if(sfx != null){
+            sfx.setMute(muted);
+            sfx.play();
+            sfx.seek(Duration.ZERO);
+        }
+    }
+
+    /**
+     * Stops the music and gives the players back to the cache. Releasing twice does nothing.
+     */
+    public void release(){
+        if(!released){
+            released = true;
+            audioCache.release();
+        }
     }
 
     /*
-     * ---------------------------------------------
-     * Wrapper methods for the song1Player instance.
-     * ---------------------------------------------
+     * -----------------------------------
+     * Wrapper methods for the song player.
+     * -----------------------------------
      */
     public void playMusic(){
-        song1Player.play();
+        musicPlaying = true;
+        MediaPlayer song = audioCache.get(AudioCache.SONG);
+        if(song != null){
+            song.setMute(muted);
+            song.play();
+        }else{
+            // the song starts once it has loaded, unless it has been paused or stopped by then
+            audioCache.whenLoaded(AudioCache.SONG).thenAccept(loaded -> {
+                if(loaded != null && musicPlaying && !released){
+                    loaded.setMute(muted);
+                    loaded.play();
+                }
+            });
+        }
     }
 
     public void pauseMusic(){
-        song1Player.pause();
+        musicPlaying = false;
+        MediaPlayer song = audioCache.get(AudioCache.SONG);
+        if(song != null){
+            song.pause();
+        }
     }
 
     public void stopMusic(){
-        song1Player.stop();
+        musicPlaying = false;
+        MediaPlayer song = audioCache.get(AudioCache.SONG);
+        if(song != null){
+            song.stop();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,56 @@
+package project;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The startup timer logs how long each phase of startup takes, counted from the start of the JVM.
+ * Phases are marked as they complete, and the whole startup is logged as one line once the first frame is drawn.
+ */
+public final class StartupTimer {
+    // start of the JVM process, falls back to the loading of this class where the platform does not tell
+    private static final long JVM_START = ProcessHandle.current().info().startInstant()
+            .map(Instant::toEpochMilli)
+            .orElse(System.currentTimeMillis());
+    private static final List<String> phases = new ArrayList<>();
+    private static final List<Long> times = new ArrayList<>();
+    private static boolean reported = false;
+
+    private StartupTimer(){}
+
+    /**
+     * Marks a phase of startup as complete.
+     * @param phase: Name of the phase.
+     */
+    public static synchronized void mark(String phase){
+        phases.add(phase);
+        times.add(System.currentTimeMillis() - JVM_START);
+    }
+
+    /**
+     * Logs the phases marked so far, with the time since JVM start and since the previous phase. Only logs once.
+     */
+    public static synchronized void report(){
+        if(reported){
+            return;
+        }
+        reported = true;
+        StringBuilder line = new StringBuilder("Startup:");
+        long previous = 0;
+        for(int i = 0; i < phases.size(); i++){
+            line.append(i == 0 ? " " : ", ")
+                    .append(phases.get(i)).append(" ").append(times.get(i)).append(" ms")
+                    .append(" (+").append(times.get(i) - previous).append(")");
+            previous = times.get(i);
+        }
+        System.out.println(line);
+    }
+
+    /**
+     * @return Milliseconds since the JVM started.
+     */
+    public static long sinceStart(){
+        return System.currentTimeMillis() - JVM_START;
+    }
+}
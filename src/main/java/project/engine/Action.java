@@ -0,0 +1,17 @@
+package project.engine;
+
+/**
+ * The actions an engine can be stepped with.
+ * TICK advances the game by one step of gravity, the rest are player input.
+ * HARD_DROP falls the piece as far as it goes, and has it lock on the next tick.
+ */
+public enum Action {
+	UP,
+	DOWN,
+	LEFT,
+	RIGHT,
+	ROTATE,
+	FALL,
+	HARD_DROP,
+	TICK
+}
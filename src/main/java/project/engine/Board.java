@@ -0,0 +1,777 @@
+package project.engine;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A board instance stores the current static board tiles.
+ * The board is split into chunks of 64 by 64 tiles, which are only allocated once a tile is placed in them,
+ * so empty regions of large boards cost nothing but an empty slot in the chunk table.
+ * Within a chunk, occupancy is packed into bit rows, one long per row, while tile colors are stored as palette indices (see Tile).
+ * Tiles are also counted per ring, the squares of tiles at equal distance from the center tile, so completed rings are
+ * found without scanning the board. A completed ring is cleared, and the rings outside of it collapse toward the center.
+ */
+public class Board {
+	private static final int CHUNK_BITS = 6;
+	private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	private final int gridWidth;
+	private final int gridHeight;
+	private final int chunkColumns;
+	// chunks row after row, null where no tile has been placed.
+	private final Chunk[] chunks;
+	// occupied tiles, the center tile included.
+	private int tileCount = 0;
+	// calls to overlaps() made by the pieces of the game, for metrics.
+	private long overlapChecks = 0;
+
+	// occupied tiles per ring, and the tiles of each ring that lie on the board.
+	private final int[] ringCounts;
+	private final int[] ringCapacities;
+	// bounds of the occupied tiles, never shrinking but when rings collapse.
+	private int left;
+	private int top;
+	private int right;
+	private int bottom;
+	// first occupied tile of every lane as seen from the entry edge of each fall direction (see Piece.getDirection()),
+	// the rows of columns for the vertical directions and the columns of rows for the horizontal ones.
+	// empty lanes hold the position just past the far edge.
+	private final int[][] surfaces;
+	// tiles placed by pieces, and the ring sizes cleared, making up the score.
+	private int placedTiles = 0;
+	private int clearBonus = 0;
+	private int clearedRings = 0;
+
+	/**
+	 * A square of tiles, bit x of row y is set if the tile at (x, y) within the chunk is occupied.
+	 */
+	private static final class Chunk {
+		final long[] rows = new long[CHUNK_SIZE];
+		final byte[] colors = new byte[CHUNK_SIZE * CHUNK_SIZE];
+
+		Chunk copy(){
+			Chunk copy = new Chunk();
+			System.arraycopy(this.rows, 0, copy.rows, 0, CHUNK_SIZE);
+			System.arraycopy(this.colors, 0, copy.colors, 0, this.colors.length);
+			return copy;
+		}
+	}
+
+	/**
+	 * Receives the occupied tiles of a board, see forEachTile().
+	 */
+	@FunctionalInterface
+	public interface TileConsumer {
+		void accept(int x, int y, byte color);
+	}
+
+	/**
+	 * The board class stores the current static board tiles and the size of the board.
+	 * @param gridWidth Columns making up the board.
+	 * @param gridHeight Rows making up the board.
+	 */
+	public Board(int gridWidth, int gridHeight) {
+		if(gridWidth < 0 || gridHeight < 0){
+			throw new IllegalArgumentException("Dimensions cannot be negative.");
+		}
+		this.gridWidth = gridWidth;
+		this.gridHeight = gridHeight;
+
+		this.chunkColumns = (gridWidth + CHUNK_MASK) >>> CHUNK_BITS;
+		long chunkCount = (long) this.chunkColumns * ((gridHeight + CHUNK_MASK) >>> CHUNK_BITS);
+		if(chunkCount > Integer.MAX_VALUE){
+			throw new IllegalArgumentException("Board is too large.");
+		}
+		this.chunks = new Chunk[(int) chunkCount];
+
+		int centerX = gridWidth / 2;
+		int centerY = gridHeight / 2;
+		int rings = Math.max(Math.max(centerX, gridWidth - 1 - centerX), Math.max(centerY, gridHeight - 1 - centerY)) + 1;
+		this.ringCounts = new int[rings];
+		this.ringCapacities = new int[rings];
+		long inside = 0;
+		for(int ring = 0; ring < rings; ring++){
+			// tiles of the square reaching out to the ring, clipped by the board edges.
+			long square = (long) (Math.min(centerX + ring, gridWidth - 1) - Math.max(centerX - ring, 0) + 1)
+					* (Math.min(centerY + ring, gridHeight - 1) - Math.max(centerY - ring, 0) + 1);
+			this.ringCapacities[ring] = (int) (square - inside);
+			inside = square;
+		}
+		this.left = this.right = centerX;
+		this.top = this.bottom = centerY;
+		this.surfaces = new int[][]{new int[gridWidth], new int[gridWidth], new int[gridHeight], new int[gridHeight]};
+		this.resetSurfaces(0, gridWidth - 1, 0, gridHeight - 1);
+
+		if(gridWidth > 0 && gridHeight > 0){
+			setRow(gridHeight / 2, gridWidth / 2, 1, Tile.CENTER);
+		}
+	}
+
+	/**
+	 * Copy constructor, the copy shares no state with the original.
+	 * @param board The board to be copied.
+	 */
+	public Board(Board board) {
+		this.gridWidth = board.gridWidth;
+		this.gridHeight = board.gridHeight;
+		this.chunkColumns = board.chunkColumns;
+		this.chunks = new Chunk[board.chunks.length];
+		for(int i = 0; i < this.chunks.length; i++){
+			if(board.chunks[i] != null){
+				this.chunks[i] = board.chunks[i].copy();
+			}
+		}
+		this.tileCount = board.tileCount;
+		this.overlapChecks = board.overlapChecks;
+		this.ringCounts = board.ringCounts.clone();
+		this.ringCapacities = board.ringCapacities;
+		this.surfaces = new int[Piece.DIRECTIONS][];
+		for(int direction = 0; direction < Piece.DIRECTIONS; direction++){
+			this.surfaces[direction] = board.surfaces[direction].clone();
+		}
+		this.left = board.left;
+		this.top = board.top;
+		this.right = board.right;
+		this.bottom = board.bottom;
+		this.placedTiles = board.placedTiles;
+		this.clearBonus = board.clearBonus;
+		this.clearedRings = board.clearedRings;
+	}
+
+	/**
+	 * Writes the tiles and score of the board, see Snapshot.
+	 * Chunks are written as a mask of their occupied rows, the occupied rows, and the colors of the occupied tiles.
+	 * @param data Stream to write to.
+	 * @throws IOException If the stream fails.
+	 */
+	void write(DataOutputStream data) throws IOException {
+		Varint.write(data, placedTiles);
+		Varint.write(data, clearBonus);
+		Varint.write(data, clearedRings);
+		int count = 0;
+		for(Chunk chunk : chunks){
+			count += chunk != null ? 1 : 0;
+		}
+		Varint.write(data, count);
+		int previous = 0;
+		for(int index = 0; index < chunks.length; index++){
+			Chunk chunk = chunks[index];
+			if(chunk == null){
+				continue;
+			}
+			Varint.write(data, index - previous);
+			previous = index;
+			long occupiedRows = 0;
+			for(int y = 0; y < CHUNK_SIZE; y++){
+				occupiedRows |= chunk.rows[y] != 0 ? 1L << y : 0;
+			}
+			data.writeLong(occupiedRows);
+			for(long rows = occupiedRows; rows != 0; rows &= rows - 1){
+				data.writeLong(chunk.rows[Long.numberOfTrailingZeros(rows)]);
+			}
+			for(long rows = occupiedRows; rows != 0; rows &= rows - 1){
+				int y = Long.numberOfTrailingZeros(rows);
+				for(long remaining = chunk.rows[y]; remaining != 0; remaining &= remaining - 1){
+					data.writeByte(chunk.colors[y << CHUNK_BITS | Long.numberOfTrailingZeros(remaining)]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads a board written by write(). The ring counts are not written, but counted again from the tiles.
+	 * Collision checks are a statistic of the running game rather than part of its state, and start at 0.
+	 * @param data Stream to read from.
+	 * @param gridWidth Columns making up the board.
+	 * @param gridHeight Rows making up the board.
+	 * @return The board.
+	 * @throws IOException If the stream fails, or holds tiles off the board.
+	 */
+	static Board read(DataInputStream data, int gridWidth, int gridHeight) throws IOException {
+		Board board = new Board(gridWidth, gridHeight);
+		// the center tile is read like any other
+		Arrays.fill(board.chunks, null);
+		Arrays.fill(board.ringCounts, 0);
+		board.tileCount = 0;
+		board.placedTiles = (int) Varint.read(data);
+		board.clearBonus = (int) Varint.read(data);
+		board.clearedRings = (int) Varint.read(data);
+		long count = Varint.read(data);
+		long index = 0;
+		for(long i = 0; i < count; i++){
+			index += Varint.read(data);
+			if(index >= board.chunks.length){
+				throw new IOException("Chunk " + index + " is off the board.");
+			}
+			Chunk chunk = new Chunk();
+			board.chunks[(int) index] = chunk;
+			long occupiedRows = data.readLong();
+			for(long rows = occupiedRows; rows != 0; rows &= rows - 1){
+				chunk.rows[Long.numberOfTrailingZeros(rows)] = data.readLong();
+			}
+			int left = (int) (index % board.chunkColumns) << CHUNK_BITS;
+			int top = (int) (index / board.chunkColumns) << CHUNK_BITS;
+			for(long rows = occupiedRows; rows != 0; rows &= rows - 1){
+				int y = Long.numberOfTrailingZeros(rows);
+				for(long remaining = chunk.rows[y]; remaining != 0; remaining &= remaining - 1){
+					int x = Long.numberOfTrailingZeros(remaining);
+					if(left + x >= gridWidth || top + y >= gridHeight){
+						throw new IOException("Tile " + (left + x) + ", " + (top + y) + " is off the board.");
+					}
+					chunk.colors[y << CHUNK_BITS | x] = data.readByte();
+					board.tileCount++;
+					board.ringCounts[board.ring(left + x, top + y)]++;
+					board.left = Math.min(board.left, left + x);
+					board.right = Math.max(board.right, left + x);
+					board.top = Math.min(board.top, top + y);
+					board.bottom = Math.max(board.bottom, top + y);
+				}
+			}
+		}
+		board.resetSurfaces(0, gridWidth - 1, 0, gridHeight - 1);
+		board.scanSurfaces();
+		return board;
+	}
+
+	/**
+	 * @param chunkX Chunk column, past the last column gives null.
+	 * @param y Board row.
+	 * @return The chunk holding the row at the chunk column, null if it has no tiles.
+	 */
+	private Chunk chunk(int chunkX, int y){
+		if(chunkX >= chunkColumns){
+			return null;
+		}
+		return chunks[(y >>> CHUNK_BITS) * chunkColumns + chunkX];
+	}
+
+	/**
+	 * @return The chunk holding the row at the chunk column, allocated if it has no tiles yet.
+	 */
+	private Chunk chunkForWriting(int chunkX, int y){
+		int index = (y >>> CHUNK_BITS) * chunkColumns + chunkX;
+		if(chunks[index] == null){
+			chunks[index] = new Chunk();
+		}
+		return chunks[index];
+	}
+
+	/**
+	 * Checks if a bit row overlaps the occupied tiles of a board row.
+	 * @param y Board row.
+	 * @param x Column of the lowest bit in the mask, cannot be negative.
+	 * @param mask Bit row, bit i covering column x + i.
+	 * @return True if any of the covered tiles are occupied.
+	 */
+	private boolean rowOverlaps(int y, int x, int mask){
+		int chunkX = x >>> CHUNK_BITS;
+		int bit = x & CHUNK_MASK;
+		long bits = mask & 0xFFFFFFFFL;
+		Chunk chunk = chunk(chunkX, y);
+		if(chunk != null && (chunk.rows[y & CHUNK_MASK] & (bits << bit)) != 0){
+			return true;
+		}
+		// the mask may spill over into the next chunk.
+		if(bit == 0 || (bits >>> (CHUNK_SIZE - bit)) == 0){
+			return false;
+		}
+		Chunk next = chunk(chunkX + 1, y);
+		return next != null && (next.rows[y & CHUNK_MASK] & (bits >>> (CHUNK_SIZE - bit))) != 0;
+	}
+
+	/**
+	 * Occupies the tiles covered by a bit row, and gives them a color.
+	 * @param y Board row.
+	 * @param x Column of the lowest bit in the mask, cannot be negative.
+	 * @param mask Bit row, bit i covering column x + i, all of them on the board.
+	 * @param color Palette index of the placed tiles.
+	 */
+	private void setRow(int y, int x, int mask, byte color){
+		for(int remaining = mask; remaining != 0; remaining &= remaining - 1){
+			int tileX = x + Integer.numberOfTrailingZeros(remaining);
+			Chunk chunk = chunkForWriting(tileX >>> CHUNK_BITS, y);
+			long bit = 1L << (tileX & CHUNK_MASK);
+			if((chunk.rows[y & CHUNK_MASK] & bit) == 0){
+				chunk.rows[y & CHUNK_MASK] |= bit;
+				tileCount++;
+				ringCounts[ring(tileX, y)]++;
+				left = Math.min(left, tileX);
+				right = Math.max(right, tileX);
+				top = Math.min(top, y);
+				bottom = Math.max(bottom, y);
+				addToSurfaces(tileX, y);
+			}
+			chunk.colors[(y & CHUNK_MASK) << CHUNK_BITS | (tileX & CHUNK_MASK)] = color;
+		}
+	}
+
+	/**
+	 * Lets an occupied tile raise the surfaces of its column and row.
+	 */
+	private void addToSurfaces(int x, int y){
+		surfaces[0][x] = Math.min(surfaces[0][x], y);
+		surfaces[1][x] = Math.max(surfaces[1][x], y);
+		surfaces[2][y] = Math.min(surfaces[2][y], x);
+		surfaces[3][y] = Math.max(surfaces[3][y], x);
+	}
+
+	/**
+	 * Empties the surfaces of a range of columns and a range of rows.
+	 */
+	private void resetSurfaces(int fromColumn, int toColumn, int fromRow, int toRow){
+		for(int x = fromColumn; x <= toColumn; x++){
+			surfaces[0][x] = gridHeight;
+			surfaces[1][x] = -1;
+		}
+		for(int y = fromRow; y <= toRow; y++){
+			surfaces[2][y] = gridWidth;
+			surfaces[3][y] = -1;
+		}
+	}
+
+	/**
+	 * Raises the surfaces by every tile within the bounds of the occupied tiles, a word of tiles at a time.
+	 */
+	private void scanSurfaces(){
+		for(int y = top; y <= bottom; y++){
+			for(int chunkX = left >>> CHUNK_BITS; chunkX <= right >>> CHUNK_BITS; chunkX++){
+				Chunk chunk = chunk(chunkX, y);
+				if(chunk == null){
+					continue;
+				}
+				for(long remaining = chunk.rows[y & CHUNK_MASK]; remaining != 0; remaining &= remaining - 1){
+					addToSurfaces(chunkX << CHUNK_BITS | Long.numberOfTrailingZeros(remaining), y);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sets or clears a single tile, leaving the counts alone.
+	 * @param x Column of the tile.
+	 * @param y Row of the tile.
+	 * @param color Palette index of the tile, Tile.EMPTY clears it.
+	 */
+	private void putTile(int x, int y, byte color){
+		Chunk chunk = color == Tile.EMPTY ? chunk(x >>> CHUNK_BITS, y) : chunkForWriting(x >>> CHUNK_BITS, y);
+		if(chunk == null){
+			return;
+		}
+		long bit = 1L << (x & CHUNK_MASK);
+		if(color == Tile.EMPTY){
+			chunk.rows[y & CHUNK_MASK] &= ~bit;
+		}
+		else{
+			chunk.rows[y & CHUNK_MASK] |= bit;
+		}
+		chunk.colors[(y & CHUNK_MASK) << CHUNK_BITS | (x & CHUNK_MASK)] = color;
+	}
+
+	/**
+	 * @return The ring of the tile, its distance from the center tile counted in squares (Chebyshev distance).
+	 */
+	private int ring(int x, int y){
+		return Math.max(Math.abs(x - gridWidth / 2), Math.abs(y - gridHeight / 2));
+	}
+
+	/**
+	 * @return 1 if the tile is on the board and occupied, 0 otherwise.
+	 */
+	private int occupied(int x, int y){
+		if(x < 0 || y < 0 || x >= gridWidth || y >= gridHeight){
+			return 0;
+		}
+		Chunk chunk = chunk(x >>> CHUNK_BITS, y);
+		return chunk != null && (chunk.rows[y & CHUNK_MASK] & (1L << (x & CHUNK_MASK))) != 0 ? 1 : 0;
+	}
+
+	/**
+	 * @return True if every tile of the ring is occupied, the center tile never counts as a ring.
+	 */
+	private boolean complete(int ring){
+		return ring > 0 && ringCounts[ring] == ringCapacities[ring];
+	}
+
+	/**
+	 * Clears a ring by taking out the rows and columns it lies on, moving everything outside of them one tile
+	 * toward the center. Each ring further out loses the eight tiles it shares with those rows and columns, and becomes
+	 * the ring inside of it, so the ring counts are shifted rather than recounted.
+	 * Only the bounds of the occupied tiles are moved, and their surfaces scanned again, so the cost does not grow with the board.
+	 * @param ring The completed ring.
+	 */
+	private void clearRing(int ring){
+		int centerX = gridWidth / 2;
+		int centerY = gridHeight / 2;
+		int outermost = Math.max(Math.max(centerX - left, right - centerX), Math.max(centerY - top, bottom - centerY));
+		int removed = ringCounts[ring];
+		// only lanes within the bounds can change, and the bounds shrink
+		resetSurfaces(left, right, top, bottom);
+		for(int outer = ring + 1; outer <= outermost; outer++){
+			int crossed = occupied(centerX - outer, centerY - ring) + occupied(centerX + outer, centerY - ring)
+					+ occupied(centerX - outer, centerY + ring) + occupied(centerX + outer, centerY + ring)
+					+ occupied(centerX - ring, centerY - outer) + occupied(centerX - ring, centerY + outer)
+					+ occupied(centerX + ring, centerY - outer) + occupied(centerX + ring, centerY + outer);
+			ringCounts[outer - 1] = ringCounts[outer] - crossed;
+			removed += crossed;
+		}
+		ringCounts[Math.max(outermost, ring)] = 0;
+		tileCount -= removed;
+
+		// rows below the ring move up, rows above it move down. A ring clipped by the board edge has no line on that side,
+		// and the lines there are left alone.
+		if(centerY + ring < gridHeight){
+			for(int y = centerY + ring; y < bottom; y++){
+				for(int x = left; x <= right; x++){
+					putTile(x, y, getTile(x, y + 1));
+				}
+			}
+			for(int x = left; x <= right; x++){
+				putTile(x, bottom, Tile.EMPTY);
+			}
+			bottom--;
+		}
+		if(centerY - ring >= 0){
+			for(int y = centerY - ring; y > top; y--){
+				for(int x = left; x <= right; x++){
+					putTile(x, y, getTile(x, y - 1));
+				}
+			}
+			for(int x = left; x <= right; x++){
+				putTile(x, top, Tile.EMPTY);
+			}
+			top++;
+		}
+		// then columns right of the ring move left, and columns left of it move right.
+		if(centerX + ring < gridWidth){
+			for(int x = centerX + ring; x < right; x++){
+				for(int y = top; y <= bottom; y++){
+					putTile(x, y, getTile(x + 1, y));
+				}
+			}
+			for(int y = top; y <= bottom; y++){
+				putTile(right, y, Tile.EMPTY);
+			}
+			right--;
+		}
+		if(centerX - ring >= 0){
+			for(int x = centerX - ring; x > left; x--){
+				for(int y = top; y <= bottom; y++){
+					putTile(x, y, getTile(x - 1, y));
+				}
+			}
+			for(int y = top; y <= bottom; y++){
+				putTile(left, y, Tile.EMPTY);
+			}
+			left++;
+		}
+		scanSurfaces();
+
+		clearBonus += ringCapacities[ring];
+		clearedRings++;
+	}
+
+	/**
+	 * Finds how far a piece can fall before it rests, the amount of falls Piece.canFall() would allow in a row.
+	 * The distance is read off the surface of the fall direction in O(tiles), unless a tile lies between the piece and
+	 * the surface, e.g. when the piece has been slid under an overhang, in which case the piece is fallen tile by tile.
+	 * A piece resting against the far edge falls off the board on its next fall.
+	 * @param mask Piece tiles, packed as described in PieceShapes, all of them on the board.
+	 * @param pieceX Column of the piece.
+	 * @param pieceY Row of the piece.
+	 * @param direction Fall direction, see Piece.getDirection().
+	 * @return The amount of tiles the piece can fall.
+	 */
+	public int landingDistance(int mask, int pieceX, int pieceY, int direction){
+		int[] surface = surfaces[direction];
+		int distance = Integer.MAX_VALUE;
+		for(int remaining = mask; remaining != 0; remaining &= remaining - 1){
+			int bit = Integer.numberOfTrailingZeros(remaining);
+			int x = pieceX + bit % PieceShapes.MAX_SIZE;
+			int y = pieceY + bit / PieceShapes.MAX_SIZE;
+			int gap = switch(direction){
+				case 0 -> surface[x] - y;
+				case 1 -> y - surface[x];
+				case 2 -> surface[y] - x;
+				default -> x - surface[y];
+			};
+			if(gap <= 0){
+				return scanLandingDistance(mask, pieceX, pieceY, direction);
+			}
+			distance = Math.min(distance, gap - 1);
+		}
+		return distance;
+	}
+
+	/**
+	 * Falls the tiles of a piece one tile at a time until one of them would be occupied or off the board.
+	 * @return The amount of tiles the piece can fall.
+	 */
+	private int scanLandingDistance(int mask, int pieceX, int pieceY, int direction){
+		int fallX = Piece.fallX(direction);
+		int fallY = Piece.fallY(direction);
+		for(int distance = 0; ; distance++){
+			for(int remaining = mask; remaining != 0; remaining &= remaining - 1){
+				int bit = Integer.numberOfTrailingZeros(remaining);
+				int x = pieceX + bit % PieceShapes.MAX_SIZE + fallX * (distance + 1);
+				int y = pieceY + bit / PieceShapes.MAX_SIZE + fallY * (distance + 1);
+				if(x < 0 || y < 0 || x >= gridWidth || y >= gridHeight || occupied(x, y) != 0){
+					return distance;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Checks if a rectangle of tiles lies inside the board.
+	 * @param left First column of the rectangle.
+	 * @param top First row of the rectangle.
+	 * @param right Last column of the rectangle.
+	 * @param bottom Last row of the rectangle.
+	 * @return True if the whole rectangle is on the board.
+	 */
+	public boolean contains(int left, int top, int right, int bottom){
+		return left >= 0 && top >= 0 && right < gridWidth && bottom < gridHeight;
+	}
+
+	/**
+	 * Checks if the tiles of a piece overlap the static tiles, the tiles must be contained by the board.
+	 * @param mask Piece tiles, packed as described in PieceShapes.
+	 * @param pieceX Column of the piece.
+	 * @param pieceY Row of the piece.
+	 * @return True if any tiles overlap.
+	 */
+	public boolean overlaps(int mask, int pieceX, int pieceY){
+		overlapChecks++;
+		return this.probe(mask, pieceX, pieceY);
+	}
+
+	/**
+	 * Checks if the tiles of a piece overlap the static tiles like overlaps(), without counting as a collision check.
+	 * Meant for searches over many poses, such as an autoplayer's, which are no part of the game being played.
+	 * @param mask Piece tiles, packed as described in PieceShapes.
+	 * @param pieceX Column of the piece.
+	 * @param pieceY Row of the piece.
+	 * @return True if any tiles overlap.
+	 */
+	public boolean probe(int mask, int pieceX, int pieceY){
+		// empty columns of the piece may hang off the left edge.
+		int shift = pieceX < 0 ? -pieceX : 0;
+		for(int y = 0; mask >>> (y * PieceShapes.MAX_SIZE) != 0; y++){
+			int row = PieceShapes.row(mask, y) >>> shift;
+			if(row != 0 && rowOverlaps(pieceY + y, pieceX + shift, row)){
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Merges the tile sets from the passed piece instance and the current board array.
+	 * @param currentPiece The piece to be merged with board.
+	 * @return The merged array of palette indices, indexed by column then row.
+	 */
+	public byte[][] placeOnBoard(Piece currentPiece){
+		if(currentPiece == null){
+			throw new IllegalArgumentException("Current piece cannot be null");
+		}
+		byte[][] boardArrCurrent = getBoardArr();
+		byte color = currentPiece.getColorIndex();
+		int pieceX = currentPiece.getXPos();
+		int pieceY = currentPiece.getYPos();
+		int mask = currentPiece.getMask();
+		for(int y = 0; y < currentPiece.getSize(); y++){
+			for(int remaining = PieceShapes.row(mask, y); remaining != 0; remaining &= remaining - 1){
+				int x = pieceX + Integer.numberOfTrailingZeros(remaining);
+				if((x >= 0 && x < gridWidth) && (pieceY + y >= 0 && pieceY + y < gridHeight)){
+					boardArrCurrent[x][pieceY + y] = color;
+				}
+			}
+		}
+		return boardArrCurrent;
+	}
+
+	/**
+	 * Places the current piece on the static board, and clears the rings it completes.
+	 * Tiles falling outside of the board are dropped.
+	 * Only the rings the piece touches are checked, unless a clear collapses another completed ring into place.
+	 * @param currentPiece The piece to be placed onto board.
+	 * @return The amount of rings cleared.
+	 */
+	public int makeCurrentBoardArr(Piece currentPiece) {
+		if(currentPiece == null){
+			throw new IllegalArgumentException("Current piece cannot be null");
+		}
+		int pieceX = currentPiece.getXPos();
+		int pieceY = currentPiece.getYPos();
+		int pieceMask = currentPiece.getMask();
+		byte color = currentPiece.getColorIndex();
+		int tilesBefore = tileCount;
+		int completed = 0;
+		for(int y = 0; y < currentPiece.getSize(); y++){
+			int boardY = pieceY + y;
+			int mask = PieceShapes.row(pieceMask, y);
+			if(mask == 0 || boardY < 0 || boardY >= gridHeight){
+				continue;
+			}
+			int x = pieceX;
+			// clip the row to the board edges.
+			if(x < 0){
+				mask = (-x < 32) ? mask >>> -x : 0;
+				x = 0;
+			}
+			if(x < gridWidth){
+				mask &= (int) ((1L << Math.min(gridWidth - x, 32)) - 1);
+				if(mask != 0){
+					setRow(boardY, x, mask, color);
+					for(int remaining = mask; remaining != 0; remaining &= remaining - 1){
+						int ring = ring(x + Integer.numberOfTrailingZeros(remaining), boardY);
+						if(ring > completed && complete(ring)){
+							completed = ring;
+						}
+					}
+				}
+			}
+		}
+		placedTiles += tileCount - tilesBefore;
+
+		// outer rings first, clearing a ring leaves the rings inside of it alone.
+		int cleared = 0;
+		while(completed > 0){
+			clearRing(completed);
+			cleared++;
+			// the collapse may have brought another completed ring together, rare enough to scan for.
+			completed = 0;
+			for(int ring = ringCounts.length - 1; ring > 0 && completed == 0; ring--){
+				if(complete(ring)){
+					completed = ring;
+				}
+			}
+		}
+		return cleared;
+	}
+
+	/*
+	 * ---------------
+	 * Getter methods.
+	 * ---------------
+	 */
+
+	/**
+	 * The calculate score method returns the amount of tiles placed on the board, plus the size of every ring cleared.
+	 * The count is kept up to date as pieces are placed.
+	 * @return Score as integer.
+	 */
+	public int getScore(){
+		return placedTiles + clearBonus;
+	}
+
+	/**
+	 * @return The amount of rings cleared so far.
+	 */
+	public int getClearedRings(){
+		return clearedRings;
+	}
+
+	/**
+	 * @param ring Distance from the center tile, see clearRing().
+	 * @return The amount of occupied tiles in the ring.
+	 */
+	public int getRingCount(int ring){
+		return ringCounts[ring];
+	}
+
+	/**
+	 * @param ring Distance from the center tile.
+	 * @return The amount of tiles of the ring lying on the board, the ring is complete once they are all occupied.
+	 */
+	public int getRingCapacity(int ring){
+		return ringCapacities[ring];
+	}
+
+	/**
+	 * @return The amount of occupied tiles, the center tile included.
+	 */
+	public int getTileCount(){
+		return tileCount;
+	}
+
+	/**
+	 * @param currentPiece The current piece.
+	 * @return The merged tileset of the current board and piece.
+	 */
+	public byte[][] getBoardArrCurrent(Piece currentPiece){
+		return placeOnBoard(currentPiece);
+	}
+
+	/**
+	 * @return A copy of the palette indices of the static tiles, indexed by column then row.
+	 * Allocates the whole board, so it is best kept away from large boards.
+	 */
+	public byte[][] getBoardArr(){
+		byte[][] boardArr = new byte[gridWidth][gridHeight];
+		forEachTile((x, y, color) -> boardArr[x][y] = color);
+		return boardArr;
+	}
+
+	/**
+	 * Passes every static tile to the consumer, skipping empty chunks, in no particular order.
+	 * @param consumer Receives the position and palette index of each tile.
+	 */
+	public void forEachTile(TileConsumer consumer){
+		for(int index = 0; index < chunks.length; index++){
+			Chunk chunk = chunks[index];
+			if(chunk == null){
+				continue;
+			}
+			int left = (index % chunkColumns) << CHUNK_BITS;
+			int top = (index / chunkColumns) << CHUNK_BITS;
+			for(int y = 0; y < CHUNK_SIZE; y++){
+				for(long remaining = chunk.rows[y]; remaining != 0; remaining &= remaining - 1){
+					int x = Long.numberOfTrailingZeros(remaining);
+					consumer.accept(left + x, top + y, chunk.colors[y << CHUNK_BITS | x]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param x Column of the tile.
+	 * @param y Row of the tile.
+	 * @return The palette index of the static tile, Tile.EMPTY if there is none.
+	 */
+	public byte getTile(int x, int y){
+		Chunk chunk = chunk(x >>> CHUNK_BITS, y);
+		return chunk == null ? Tile.EMPTY : chunk.colors[(y & CHUNK_MASK) << CHUNK_BITS | (x & CHUNK_MASK)];
+	}
+
+	/**
+	 * @return The amount of chunks holding tiles, each taking a few kilobytes.
+	 */
+	public int getChunkCount(){
+		int count = 0;
+		for(Chunk chunk : chunks){
+			if(chunk != null){
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * @return The amount of collision checks made against the board so far, probes not included.
+	 */
+	public long getOverlapChecks(){
+		return overlapChecks;
+	}
+
+	public int getGridWidth(){
+		return gridWidth;
+	}
+
+	public int getGridHeight(){
+		return gridHeight;
+	}
+}
@@ -0,0 +1,372 @@
+package project.engine;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * The engine holds the rules of the game, free of any frontend.
+ * It is driven one action at a time through step(), and reports what happened as a set of flags,
+ * leaving drawing, sound and timing to whoever is stepping it.
+ */
+public class Engine {
+	// piece template array, indexed by column then row
+	public static final byte[][][] PIECE_TEMPLATES = {
+			{
+				// t shape
+				{0, 0, 0},
+				{Tile.T, Tile.T, Tile.T},
+				{0, Tile.T, 0}
+			},
+			{
+				// long shape
+				{0, 0, 0, 0},
+				{Tile.I, Tile.I, Tile.I, Tile.I},
+				{0, 0, 0, 0},
+				{0, 0, 0, 0}
+			},
+			{
+				// square shape
+				{Tile.SQUARE, Tile.SQUARE},
+				{Tile.SQUARE, Tile.SQUARE}
+			},
+			{
+				// right L shape
+				{Tile.L_1, Tile.L_1, 0},
+				{0, Tile.L_1, 0},
+				{0, Tile.L_1, 0}
+			},
+			{
+				// left L shape
+				{0, Tile.L_2, Tile.L_2},
+				{0, Tile.L_2, 0},
+				{0, Tile.L_2, 0}
+			},
+			{
+				// right Z shape
+				{0, 0, 0},
+				{0, Tile.Z_1, Tile.Z_1},
+				{Tile.Z_1, Tile.Z_1, 0}
+			},
+			{
+				// left Z shape
+				{0, 0, 0},
+				{Tile.Z_2, Tile.Z_2, 0},
+				{0, Tile.Z_2, Tile.Z_2}
+			}
+	};
+	// every rotation of the templates, precomputed once
+	public static final PieceShapes PIECE_SHAPES = new PieceShapes(PIECE_TEMPLATES);
+
+	// game settings
+	public static final int BUFFER_MAX = 8;
+	public static final int ROTATION_LIFT = 3;
+
+	// step result flags
+	public static final int MOVED = 1;
+	public static final int LANDED = 2;
+	public static final int LOCKED = 4;
+	public static final int LOST = 8;
+	public static final int CLEARED = 16;
+
+	private final Board board;
+	private final PieceGenerator generator;
+	private final long seed;
+	private final int gridWidth;
+	private final int gridHeight;
+
+	private Piece currentPiece;
+	private boolean lost = false;
+	private int buffer = 0;
+	private long ticks = 0;
+	private int locks = 0;
+
+	/**
+	 * Creates an engine with an empty board (save for the center tile) and a first piece, seeded from the clock.
+	 * @param gridWidth: Columns making up the board.
+	 * @param gridHeight: Rows making up the board.
+	 */
+	public Engine(int gridWidth, int gridHeight){
+		this(gridWidth, gridHeight, System.nanoTime());
+	}
+
+	/**
+	 * Creates an engine with an empty board (save for the center tile) and a first piece, dealing pieces from bags.
+	 * Engines with equal seeds, stepped with equal actions, play out equally.
+	 * @param gridWidth: Columns making up the board.
+	 * @param gridHeight: Rows making up the board.
+	 * @param seed: Seed of the piece sequence.
+	 */
+	public Engine(int gridWidth, int gridHeight, long seed){
+		this(gridWidth, gridHeight, seed, PieceGenerator.Mode.BAG);
+	}
+
+	/**
+	 * Creates an engine with an empty board (save for the center tile) and a first piece.
+	 * Engines with equal seeds and modes, stepped with equal actions, play out equally.
+	 * @param gridWidth: Columns making up the board.
+	 * @param gridHeight: Rows making up the board.
+	 * @param seed: Seed of the piece sequence.
+	 * @param mode: How pieces are dealt, see PieceGenerator.
+	 */
+	public Engine(int gridWidth, int gridHeight, long seed, PieceGenerator.Mode mode){
+		this.gridWidth = gridWidth;
+		this.gridHeight = gridHeight;
+		this.seed = seed;
+		this.generator = new PieceGenerator(mode, new Rng(seed), PIECE_SHAPES.getCount());
+		this.board = new Board(gridWidth, gridHeight);
+		this.currentPiece = this.spawn();
+	}
+
+	/**
+	 * Copy constructor, the copy plays on independently of the original.
+	 * @param engine: The engine to be copied.
+	 */
+	public Engine(Engine engine){
+		this.gridWidth = engine.gridWidth;
+		this.gridHeight = engine.gridHeight;
+		this.seed = engine.seed;
+		this.generator = new PieceGenerator(engine.generator);
+		this.board = new Board(engine.board);
+		this.currentPiece = new Piece(engine.currentPiece);
+		this.lost = engine.lost;
+		this.buffer = engine.buffer;
+		this.ticks = engine.ticks;
+		this.locks = engine.locks;
+	}
+
+	/**
+	 * Restores an engine from its parts, see read().
+	 */
+	private Engine(long seed, PieceGenerator generator, Board board, Piece piece){
+		this.gridWidth = board.getGridWidth();
+		this.gridHeight = board.getGridHeight();
+		this.seed = seed;
+		this.generator = generator;
+		this.board = board;
+		this.currentPiece = piece;
+	}
+
+	/**
+	 * Writes the complete state of the engine, see Snapshot.
+	 * @param data: Stream to write to.
+	 * @throws IOException If the stream fails.
+	 */
+	void write(DataOutputStream data) throws IOException {
+		data.writeLong(this.seed);
+		this.generator.write(data);
+		Varint.write(data, this.gridWidth);
+		Varint.write(data, this.gridHeight);
+		Varint.write(data, this.ticks);
+		Varint.write(data, this.locks);
+		Varint.write(data, this.buffer);
+		data.writeBoolean(this.lost);
+		data.writeByte(this.currentPiece.getTemplate());
+		data.writeByte(this.currentPiece.getDirection());
+		data.writeByte(this.currentPiece.getRotation());
+		Varint.write(data, Varint.zigzag(this.currentPiece.getXPos()));
+		Varint.write(data, Varint.zigzag(this.currentPiece.getYPos()));
+		this.board.write(data);
+	}
+
+	/**
+	 * Reads an engine written by write(), which plays on exactly as the written one would have.
+	 * @param data: Stream to read from.
+	 * @return The engine.
+	 * @throws IOException If the stream fails, or does not hold a valid engine.
+	 */
+	static Engine read(DataInputStream data) throws IOException {
+		long seed = data.readLong();
+		PieceGenerator generator = PieceGenerator.read(data);
+		long gridWidth = Varint.read(data);
+		long gridHeight = Varint.read(data);
+		if(gridWidth > Integer.MAX_VALUE || gridHeight > Integer.MAX_VALUE){
+			throw new IOException("Board is too large.");
+		}
+		long ticks = Varint.read(data);
+		int locks = (int) Varint.read(data);
+		int buffer = (int) Varint.read(data);
+		boolean lost = data.readBoolean();
+		Engine engine;
+		try{
+			Piece piece = new Piece(PIECE_SHAPES, data.readByte(), data.readByte(), data.readByte(),
+					Varint.unzigzag(Varint.read(data)), Varint.unzigzag(Varint.read(data)));
+			if(generator.getTemplateCount() != PIECE_SHAPES.getCount()){
+				throw new IllegalArgumentException("generator deals " + generator.getTemplateCount() + " templates.");
+			}
+			engine = new Engine(seed, generator, Board.read(data, (int) gridWidth, (int) gridHeight), piece);
+		}
+		catch(IllegalArgumentException e){
+			throw new IOException("Bad engine state: " + e.getMessage());
+		}
+		engine.ticks = ticks;
+		engine.locks = locks;
+		engine.buffer = buffer;
+		engine.lost = lost;
+		return engine;
+	}
+
+	/**
+	 * Creates the next piece of the generator.
+	 * @return The new piece.
+	 */
+	private Piece spawn(){
+		int spawn = this.generator.next();
+		int template = spawn / Piece.DIRECTIONS;
+		int direction = spawn % Piece.DIRECTIONS;
+		return new Piece(PIECE_SHAPES, template, direction, this.gridWidth, this.gridHeight);
+	}
+
+	/**
+	 * Applies one action to the game. Does nothing once the game is lost.
+	 * @param action: The action to be applied.
+	 * @return Flags (MOVED, LANDED, LOCKED, CLEARED, LOST) describing what happened, 0 if nothing did.
+	 */
+	public int step(Action action){
+		if(this.lost){
+			return 0;
+		}
+		int x = this.currentPiece.getXPos();
+		int y = this.currentPiece.getYPos();
+		int rotation = this.currentPiece.getRotation();
+		switch(action){
+			case UP, DOWN, LEFT, RIGHT -> this.currentPiece.move(action, this.board);
+			case ROTATE -> this.currentPiece.rotate(this.board);
+			case FALL -> this.currentPiece.fall(this.board, false);
+			case HARD_DROP -> {
+				return this.hardDrop();
+			}
+			case TICK -> {
+				return this.tick();
+			}
+		}
+		boolean moved = x != this.currentPiece.getXPos() || y != this.currentPiece.getYPos() || rotation != this.currentPiece.getRotation();
+		return moved ? MOVED : 0;
+	}
+
+	/**
+	 * Falls the current piece onto whatever it lands on, and fills its buffer so it locks on the next tick.
+	 * Locking stays with the tick, so a lock is always the outcome of a tick for those stepping the engine.
+	 * @return Step result flags.
+	 */
+	private int hardDrop(){
+		int flags = this.currentPiece.drop(this.board) > 0 ? MOVED : 0;
+		if(this.buffer == 0){
+			flags |= LANDED;
+		}
+		this.buffer = BUFFER_MAX;
+		return flags;
+	}
+
+	/**
+	 * Performs one step of gravity: falls the current piece, and locks it once it has rested for BUFFER_MAX ticks.
+	 * Locking may complete rings, which are cleared right away.
+	 * @return Step result flags.
+	 */
+	private int tick(){
+		this.ticks++;
+		// if a piece lands
+		if(!this.currentPiece.fall(this.board, false)){
+			int flags = this.buffer == 0 ? LANDED : 0;
+			// if a piece has been on ground for frames = buffer
+			if(this.buffer == BUFFER_MAX){
+				if(this.currentPiece.outOfBounds(this.gridWidth, this.gridHeight)){
+					this.lost = true;
+					return flags | LOST;
+				}
+				this.buffer = 0;
+				int cleared = this.board.makeCurrentBoardArr(this.currentPiece);
+				this.locks++;
+				this.currentPiece = this.spawn();
+				return flags | LOCKED | (cleared > 0 ? CLEARED : 0);
+			}
+			this.buffer++;
+			return flags;
+		}
+		if(this.currentPiece.getLossState()){
+			this.lost = true;
+			return MOVED | LOST;
+		}
+		this.buffer = 0;
+		return MOVED;
+	}
+
+	/*
+	 * --------------
+	 * Getter methods
+	 * --------------
+	 */
+
+	public Board getBoard(){
+		return board;
+	}
+
+	public Piece getPiece(){
+		return currentPiece;
+	}
+
+	public boolean isLost(){
+		return lost;
+	}
+
+	public long getSeed(){
+		return seed;
+	}
+
+	/**
+	 * @return The generator of the game, holding the preview of the pieces to come.
+	 */
+	public PieceGenerator getGenerator(){
+		return generator;
+	}
+
+	/**
+	 * @return The amount of tiles placed on the board, plus the size of every ring cleared.
+	 */
+	public int getScore(){
+		return board.getScore();
+	}
+
+	/**
+	 * @return Returns true if the current piece will fall on the next tick, unless it is moved first.
+	 */
+	public boolean canFall(){
+		return currentPiece.canFall(board);
+	}
+
+	/**
+	 * @return The amount of tiles the current piece can fall before it lands, where a hard drop would put it.
+	 */
+	public int landingDistance(){
+		return currentPiece.landingDistance(board);
+	}
+
+	/**
+	 * @return The amount of pieces locked onto the board so far.
+	 */
+	public int getLocks(){
+		return locks;
+	}
+
+	/**
+	 * @return The amount of TICK actions applied so far.
+	 */
+	public long getTicks(){
+		return ticks;
+	}
+
+	/**
+	 * @return The amount of collision checks made against the board so far.
+	 */
+	public long getCollisionChecks(){
+		return board.getOverlapChecks();
+	}
+
+	public int getGridWidth(){
+		return gridWidth;
+	}
+
+	public int getGridHeight(){
+		return gridHeight;
+	}
+}
@@ -0,0 +1,375 @@
+package project.engine;
+
+/**
+ * A piece instance stores which template it uses, its rotation, fall direction and position on the board.
+ * Piece has methods controlling movement and rotation of its tiles as well as collision detection with the board.
+ * The tiles themselves are looked up in the precomputed shapes, so moving a piece around allocates nothing.
+ */
+public class Piece {
+	public static final int DIRECTIONS = 4;
+	// fall direction vectors, indexed by direction.
+	private static final int[] FALL_X = {0, 0, 1, -1};
+	private static final int[] FALL_Y = {1, -1, 0, 0};
+	// the inner square reaches four fifths into the board from either edge.
+	public static final int ZONE_NUMERATOR = 4;
+	public static final int ZONE_DENOMINATOR = 5;
+
+	private final PieceShapes shapes;
+	private final int template;
+	private final int direction;
+	private int rotation = 0;
+	private int xPos;
+	private int yPos;
+	private boolean lossState = false;
+
+	/**
+	 * Standard constructor, used when creating a new piece at the edge matching its fall direction.
+	 * @param pieceShapes: the precomputed tile configurations.
+	 * @param template: the chosen tile configuration.
+	 * @param direction: the fall direction, see getDirection().
+	 * @param gridWidth: the amount of columns making up the board.
+	 * @param gridHeight: the amount of rows making up the board.
+	 */
+	public Piece(PieceShapes pieceShapes, int template, int direction, int gridWidth, int gridHeight) {
+		if(template < 0 || template >= pieceShapes.getCount()){
+			throw new IllegalArgumentException("No such template.");
+		}
+		if(direction < 0 || direction >= DIRECTIONS){
+			throw new IllegalArgumentException("No such direction.");
+		}
+		this.shapes = pieceShapes;
+		this.template = template;
+		this.direction = direction;
+		int size = pieceShapes.getSize(this.template);
+
+		// placement matching velocity.
+		switch (this.direction) {
+			case 0 -> {
+				// vertical and positive velocity
+				this.xPos = gridWidth / 2;
+				this.yPos = 0;
+			}
+			case 1 -> {
+				// vertical and negative velocity
+				this.xPos = gridWidth / 2;
+				this.yPos = gridHeight - size;
+			}
+			case 2 -> {
+				// horizontal and positive velocity
+				this.xPos = 0;
+				this.yPos = gridHeight / 2;
+			}
+			default -> {
+				// horizontal and negative velocity
+				this.xPos = gridWidth - size;
+				this.yPos = gridHeight / 2;
+			}
+		}
+	}
+
+	/**
+	 * Creates a piece at a known pose, e.g. one received from a server or read from a snapshot.
+	 * @param pieceShapes: the precomputed tile configurations.
+	 * @param template: the chosen tile configuration.
+	 * @param direction: the fall direction, see getDirection().
+	 * @param rotation: the rotation, below PieceShapes.ROTATIONS.
+	 * @param xPos: column of the piece.
+	 * @param yPos: row of the piece.
+	 */
+	public Piece(PieceShapes pieceShapes, int template, int direction, int rotation, int xPos, int yPos){
+		if(template < 0 || template >= pieceShapes.getCount()){
+			throw new IllegalArgumentException("No such template.");
+		}
+		if(direction < 0 || direction >= DIRECTIONS){
+			throw new IllegalArgumentException("No such direction.");
+		}
+		if(rotation < 0 || rotation >= PieceShapes.ROTATIONS){
+			throw new IllegalArgumentException("No such rotation.");
+		}
+		this.shapes = pieceShapes;
+		this.template = template;
+		this.direction = direction;
+		this.rotation = rotation;
+		this.xPos = xPos;
+		this.yPos = yPos;
+	}
+
+	/**
+	 * Copy constructor.
+	 * @param piece: the piece to be copied.
+	 */
+	public Piece(Piece piece){
+		this.shapes = piece.shapes;
+		this.template = piece.template;
+		this.direction = piece.direction;
+		this.rotation = piece.rotation;
+		this.xPos = piece.xPos;
+		this.yPos = piece.yPos;
+		this.lossState = piece.lossState;
+	}
+
+	/**
+	 * Changes position of piece object in relation to velocity and action.
+	 * Pieces only move across their fall direction, other actions are ignored.
+	 * @param action: Action (UP, DOWN, LEFT, RIGHT) used to control movement.
+	 * @param board: Current board.
+	 */
+	public void move(Action action, Board board) {
+		// the sideways step is zero along the fall direction.
+		int stepX = FALL_X[this.direction] == 0 ? 1 : 0;
+		int stepY = FALL_Y[this.direction] == 0 ? 1 : 0;
+		switch(action) {
+			case UP -> this.tryMove(board, 0, -stepY);
+			case DOWN -> this.tryMove(board, 0, stepY);
+			case LEFT -> this.tryMove(board, -stepX, 0);
+			case RIGHT -> this.tryMove(board, stepX, 0);
+			default -> {}
+		}
+	}
+
+	/**
+	 * Moves the piece by the passed offset, unless it would collide.
+	 * @param board: Current board.
+	 * @param dx: Column offset.
+	 * @param dy: Row offset.
+	 * @return Returns true if the piece moved.
+	 */
+	private boolean tryMove(Board board, int dx, int dy){
+		if(!this.collides(board, this.rotation, this.xPos + dx, this.yPos + dy)){
+			this.xPos += dx;
+			this.yPos += dy;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Method for checking if piece tiles collide with board tiles.
+	 * Marks the passed piece as lost if any tile of this piece has fallen out of board (this may be somewhat unexpected).
+	 * @param board: Current board, to be collided against.
+	 * @param piece: The piece to be marked as lost.
+	 * @return Returns true is piece and board collide, false if they don't.
+	 */
+	public boolean collides(Board board, Piece piece){
+		// piece has fallen out of board = loss
+		if(!this.onBoard(board, this.rotation, this.xPos, this.yPos)){
+			piece.lossState = true;
+			return false;
+		}
+		return board.overlaps(this.getMask(), this.xPos, this.yPos);
+	}
+
+	/**
+	 * Checks if this piece would collide with the board, had it been at the passed rotation and position.
+	 * Falling out of board is not a collision, but marks the piece as lost.
+	 * @param board: Current board.
+	 * @param rotation: Rotation to check.
+	 * @param xPos: Column to check.
+	 * @param yPos: Row to check.
+	 * @return Returns true if piece and board would collide.
+	 */
+	private boolean collides(Board board, int rotation, int xPos, int yPos){
+		if(!this.onBoard(board, rotation, xPos, yPos)){
+			this.lossState = true;
+			return false;
+		}
+		return board.overlaps(this.shapes.getMask(this.template, rotation), xPos, yPos);
+	}
+
+	/**
+	 * Checks the precomputed extents of the occupied tiles against the board edges.
+	 * @param board: Current board.
+	 * @param rotation: Rotation to check.
+	 * @param xPos: Column to check.
+	 * @param yPos: Row to check.
+	 * @return Returns true if every tile is on the board.
+	 */
+	private boolean onBoard(Board board, int rotation, int xPos, int yPos){
+		return board.contains(
+				xPos + this.shapes.getMinX(this.template, rotation),
+				yPos + this.shapes.getMinY(this.template, rotation),
+				xPos + this.shapes.getMaxX(this.template, rotation),
+				yPos + this.shapes.getMaxY(this.template, rotation));
+	}
+
+	/**
+	 * Method for checking if piece is out bounds (small inner square on the board).
+	 * @param gridWidth: The amount of columns making up the board.
+	 * @param gridHeight: The amount of rows making up the board.
+	 * @return Returns true if piece is out of bounds, false if it isn't.
+	 */
+	public boolean outOfBounds(int gridWidth, int gridHeight){
+		return outOfBounds(
+				this.xPos + this.shapes.getMinX(this.template, this.rotation),
+				this.yPos + this.shapes.getMinY(this.template, this.rotation),
+				this.xPos + this.shapes.getMaxX(this.template, this.rotation),
+				this.yPos + this.shapes.getMaxY(this.template, this.rotation),
+				gridWidth, gridHeight);
+	}
+
+	/**
+	 * Checks a rectangle of tiles against the inner square, pieces locking outside of it lose the game.
+	 * The inner square scales with the board, and matches the inner frame drawn by the renderer:
+	 * columns [w - 4w/5, 4w/5), rows likewise, e.g. 8 to 31 on a board of 40.
+	 * @param left: First column of the rectangle.
+	 * @param top: First row of the rectangle.
+	 * @param right: Last column of the rectangle.
+	 * @param bottom: Last row of the rectangle.
+	 * @param gridWidth: The amount of columns making up the board.
+	 * @param gridHeight: The amount of rows making up the board.
+	 * @return Returns true if any part of the rectangle is outside the inner square.
+	 */
+	public static boolean outOfBounds(int left, int top, int right, int bottom, int gridWidth, int gridHeight){
+		int zoneWidth = (int) ((long) gridWidth * ZONE_NUMERATOR / ZONE_DENOMINATOR);
+		int zoneHeight = (int) ((long) gridHeight * ZONE_NUMERATOR / ZONE_DENOMINATOR);
+		return right >= zoneWidth
+				|| left < gridWidth - zoneWidth
+				|| bottom >= zoneHeight
+				|| top < gridHeight - zoneHeight;
+	}
+
+	/**
+	 * Attempts to 'fall' the piece (moving in velocity direction).
+	 * If it doesn't collide, move the piece and return true.
+	 * If it collides, keep in place and return false.
+	 * @param reverse: Set to true to 'fall' up.
+	 * @param board: Current board.
+	 * @return Returns true if successful, false if not.
+	 */
+	public boolean fall(Board board, boolean reverse){
+		int velocity = reverse ? -1 : 1;
+		return this.tryMove(board, FALL_X[this.direction] * velocity, FALL_Y[this.direction] * velocity);
+	}
+
+	/**
+	 * Checks if the piece could fall one tile without colliding or leaving the board, without moving it.
+	 * @param board: Current board.
+	 * @return Returns true if the next fall would succeed and keep the piece on the board.
+	 */
+	public boolean canFall(Board board){
+		int nextX = this.xPos + FALL_X[this.direction];
+		int nextY = this.yPos + FALL_Y[this.direction];
+		return this.onBoard(board, this.rotation, nextX, nextY) && !board.overlaps(this.getMask(), nextX, nextY);
+	}
+
+	/**
+	 * @param direction: A fall direction, see getDirection().
+	 * @return Column step of one fall in that direction.
+	 */
+	public static int fallX(int direction){
+		return FALL_X[direction];
+	}
+
+	/**
+	 * @param direction: A fall direction, see getDirection().
+	 * @return Row step of one fall in that direction.
+	 */
+	public static int fallY(int direction){
+		return FALL_Y[direction];
+	}
+
+	/**
+	 * Finds how many tiles the piece can fall before it lands, see Board.landingDistance().
+	 * @param board: Current board.
+	 * @return The amount of falls that would succeed in a row, 0 if the piece has left the board.
+	 */
+	public int landingDistance(Board board){
+		if(!this.onBoard(board, this.rotation, this.xPos, this.yPos)){
+			return 0;
+		}
+		return board.landingDistance(this.getMask(), this.xPos, this.yPos, this.direction);
+	}
+
+	/**
+	 * Falls the piece as far as it goes, in one move rather than a tile at a time.
+	 * @param board: Current board.
+	 * @return The amount of tiles the piece fell.
+	 */
+	public int drop(Board board){
+		int distance = this.landingDistance(board);
+		this.xPos += FALL_X[this.direction] * distance;
+		this.yPos += FALL_Y[this.direction] * distance;
+		return distance;
+	}
+
+	/**
+	 * Tries to rotate the current tileset 90 degrees.
+	 * If the tiles collide after rotation, perform a reverse fall up to the rotationLift setting.
+	 * @param board: Current board.
+	 */
+	public void rotate (Board board){
+		int rotated = (this.rotation + 1) % PieceShapes.ROTATIONS;
+		for(int lift = 0; lift <= Engine.ROTATION_LIFT; lift++){
+			int liftedX = this.xPos - FALL_X[this.direction] * lift;
+			int liftedY = this.yPos - FALL_Y[this.direction] * lift;
+			if(!this.collides(board, rotated, liftedX, liftedY)){
+				this.rotation = rotated;
+				this.xPos = liftedX;
+				this.yPos = liftedY;
+				return;
+			}
+		}
+	}
+
+	/*
+	 * ---------------
+	 * Getter methods.
+	 * ---------------
+	 */
+
+	/**
+	 * @return The fall direction, 0 and 1 are vertical, 2 and 3 horizontal. Even directions fall with positive velocity.
+	 */
+	public int getDirection(){
+		return direction;
+	}
+
+	/**
+	 * @return Column step of one fall, -1, 0 or 1.
+	 */
+	public int getFallX(){
+		return FALL_X[direction];
+	}
+
+	/**
+	 * @return Row step of one fall, -1, 0 or 1.
+	 */
+	public int getFallY(){
+		return FALL_Y[direction];
+	}
+
+	public int getTemplate(){
+		return template;
+	}
+
+	public int getRotation(){
+		return rotation;
+	}
+
+	/**
+	 * @return The tiles of the current rotation, packed as described in PieceShapes.
+	 */
+	public int getMask(){
+		return shapes.getMask(template, rotation);
+	}
+
+	public int getSize(){
+		return shapes.getSize(template);
+	}
+
+	public byte getColorIndex(){
+		return shapes.getColorIndex(template);
+	}
+
+	public int getXPos() {
+		return this.xPos;
+	}
+
+	public int getYPos() {
+		return this.yPos;
+	}
+
+	public boolean getLossState(){
+		return this.lossState;
+	}
+}
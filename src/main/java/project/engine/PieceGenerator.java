@@ -0,0 +1,210 @@
+package project.engine;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * The piece generator decides which pieces spawn, and the direction they fall in, drawing both from the one
+ * generator of the game. The next PREVIEW spawns are drawn ahead of time, to be shown to players and searched by bots.
+ * In BAG mode every template is dealt once, in random order, before any of them comes again, so no template is
+ * missed for long. In UNIFORM mode every spawn is an independent draw, as pieces were dealt before bags.
+ * Not thread safe, an instance belongs to one game.
+ */
+public final class PieceGenerator {
+	public enum Mode {
+		UNIFORM,
+		BAG
+	}
+
+	// spawns drawn ahead of time
+	public static final int PREVIEW = 5;
+
+	private final Mode mode;
+	private final Rng rng;
+	private final int templates;
+	// templates left in the current bag, in no particular order
+	private final int[] bag;
+	private int bagSize = 0;
+	// upcoming spawns, packed as (template * Piece.DIRECTIONS + direction), the next one at head
+	private final int[] upcoming = new int[PREVIEW];
+	private int head = 0;
+
+	/**
+	 * @param mode: How templates are dealt.
+	 * @param rng: The generator of the game, which is owned by this one from now on.
+	 * @param templates: The amount of templates to deal from.
+	 */
+	public PieceGenerator(Mode mode, Rng rng, int templates){
+		if(mode == null || rng == null){
+			throw new IllegalArgumentException("mode and rng cannot be null.");
+		}
+		if(templates <= 0){
+			throw new IllegalArgumentException("templates has to be positive.");
+		}
+		this.mode = mode;
+		this.rng = rng;
+		this.templates = templates;
+		this.bag = new int[templates];
+		for(int i = 0; i < PREVIEW; i++){
+			this.upcoming[i] = this.draw();
+		}
+	}
+
+	/**
+	 * Copy constructor, the copy deals the same pieces independently.
+	 * @param generator: The generator to be copied.
+	 */
+	public PieceGenerator(PieceGenerator generator){
+		this.mode = generator.mode;
+		this.rng = new Rng(generator.rng);
+		this.templates = generator.templates;
+		this.bag = generator.bag.clone();
+		this.bagSize = generator.bagSize;
+		System.arraycopy(generator.upcoming, 0, this.upcoming, 0, PREVIEW);
+		this.head = generator.head;
+	}
+
+	/**
+	 * Restores a generator from its parts, see read().
+	 */
+	private PieceGenerator(Mode mode, Rng rng, int templates, int[] bag, int bagSize, int[] upcoming){
+		this.mode = mode;
+		this.rng = rng;
+		this.templates = templates;
+		this.bag = bag;
+		this.bagSize = bagSize;
+		System.arraycopy(upcoming, 0, this.upcoming, 0, PREVIEW);
+	}
+
+	/**
+	 * Takes the next spawn, and draws one more to keep the preview full.
+	 * @return The spawn, packed as (template * Piece.DIRECTIONS + direction).
+	 */
+	int next(){
+		int spawn = this.upcoming[this.head];
+		this.upcoming[this.head] = this.draw();
+		this.head = (this.head + 1) % PREVIEW;
+		return spawn;
+	}
+
+	/**
+	 * Draws a template, then the direction it falls in.
+	 */
+	private int draw(){
+		int template;
+		if(this.mode == Mode.BAG){
+			if(this.bagSize == 0){
+				for(int i = 0; i < this.templates; i++){
+					this.bag[i] = i;
+				}
+				this.bagSize = this.templates;
+			}
+			int index = this.rng.nextInt(this.bagSize);
+			template = this.bag[index];
+			this.bag[index] = this.bag[--this.bagSize];
+		}
+		else{
+			template = this.rng.nextInt(this.templates);
+		}
+		return template * Piece.DIRECTIONS + this.rng.nextInt(Piece.DIRECTIONS);
+	}
+
+	/**
+	 * Writes the complete state of the generator, see Snapshot.
+	 * @param data: Stream to write to.
+	 * @throws IOException If the stream fails.
+	 */
+	void write(DataOutputStream data) throws IOException {
+		data.writeByte(this.mode.ordinal());
+		data.writeLong(this.rng.getState());
+		Varint.write(data, this.templates);
+		Varint.write(data, this.bagSize);
+		for(int i = 0; i < this.bagSize; i++){
+			Varint.write(data, this.bag[i]);
+		}
+		Varint.write(data, PREVIEW);
+		for(int i = 0; i < PREVIEW; i++){
+			Varint.write(data, this.upcoming[(this.head + i) % PREVIEW]);
+		}
+	}
+
+	/**
+	 * Reads a generator written by write(), which deals on exactly as the written one would have.
+	 * @param data: Stream to read from.
+	 * @return The generator.
+	 * @throws IOException If the stream fails, or does not hold a valid generator.
+	 */
+	static PieceGenerator read(DataInputStream data) throws IOException {
+		int mode = data.readByte();
+		if(mode < 0 || mode >= Mode.values().length){
+			throw new IOException("Unknown generator mode " + mode + ".");
+		}
+		Rng rng = new Rng(data.readLong());
+		long templates = Varint.read(data);
+		long bagSize = Varint.read(data);
+		if(templates <= 0 || templates > Byte.MAX_VALUE || bagSize > templates){
+			throw new IOException("Bad bag of " + bagSize + " out of " + templates + ".");
+		}
+		int[] bag = new int[(int) templates];
+		for(int i = 0; i < bagSize; i++){
+			bag[i] = readBounded(data, templates);
+		}
+		if(Varint.read(data) != PREVIEW){
+			throw new IOException("Preview length does not match.");
+		}
+		int[] upcoming = new int[PREVIEW];
+		for(int i = 0; i < PREVIEW; i++){
+			upcoming[i] = readBounded(data, templates * Piece.DIRECTIONS);
+		}
+		return new PieceGenerator(Mode.values()[mode], rng, (int) templates, bag, (int) bagSize, upcoming);
+	}
+
+	private static int readBounded(DataInputStream data, long bound) throws IOException {
+		long value = Varint.read(data);
+		if(value >= bound){
+			throw new IOException("Value out of range: " + value);
+		}
+		return (int) value;
+	}
+
+	/*
+	 * --------------
+	 * Getter methods
+	 * --------------
+	 */
+
+	public Mode getMode(){
+		return mode;
+	}
+
+	/**
+	 * @return The amount of templates dealt from.
+	 */
+	public int getTemplateCount(){
+		return templates;
+	}
+
+	/**
+	 * @param index: Index into the preview, 0 for the piece spawning next, up to PREVIEW - 1.
+	 * @return Template of the upcoming piece.
+	 */
+	public int getTemplate(int index){
+		return upcoming[preview(index)] / Piece.DIRECTIONS;
+	}
+
+	/**
+	 * @param index: Index into the preview, 0 for the piece spawning next, up to PREVIEW - 1.
+	 * @return Fall direction of the upcoming piece.
+	 */
+	public int getDirection(int index){
+		return upcoming[preview(index)] % Piece.DIRECTIONS;
+	}
+
+	private int preview(int index){
+		if(index < 0 || index >= PREVIEW){
+			throw new IllegalArgumentException("index has to be in [0, " + PREVIEW + ").");
+		}
+		return (head + index) % PREVIEW;
+	}
+}
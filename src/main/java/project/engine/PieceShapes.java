@@ -0,0 +1,137 @@
+package project.engine;
+
+/**
+ * Piece shapes holds all four rotations of a set of piece templates, precomputed once as compact bit masks.
+ * A mask packs the tiles of one rotation into rows of four bits, bit (y * 4 + x) is set if the tile at (x, y) is occupied.
+ */
+public final class PieceShapes {
+	public static final int MAX_SIZE = 4;
+	public static final int ROTATIONS = 4;
+	private static final int ROW_MASK = (1 << MAX_SIZE) - 1;
+
+	// masks[template * ROTATIONS + rotation], same indexing for the extents
+	private final int[] masks;
+	// the first and last occupied column and row of each mask
+	private final byte[] minX;
+	private final byte[] maxX;
+	private final byte[] minY;
+	private final byte[] maxY;
+	private final int[] sizes;
+	private final byte[] colorIndices;
+
+	/**
+	 * Precomputes the rotations of the passed templates.
+	 * @param pieceTemplates: Square tile configurations of palette indices, indexed by column then row.
+	 */
+	public PieceShapes(byte[][][] pieceTemplates){
+		if(pieceTemplates == null || pieceTemplates.length == 0){
+			throw new IllegalArgumentException("There has to be at least one piece template.");
+		}
+		this.masks = new int[pieceTemplates.length * ROTATIONS];
+		this.minX = new byte[pieceTemplates.length * ROTATIONS];
+		this.maxX = new byte[pieceTemplates.length * ROTATIONS];
+		this.minY = new byte[pieceTemplates.length * ROTATIONS];
+		this.maxY = new byte[pieceTemplates.length * ROTATIONS];
+		this.sizes = new int[pieceTemplates.length];
+		this.colorIndices = new byte[pieceTemplates.length];
+		for(int template = 0; template < pieceTemplates.length; template++){
+			byte[][] tiles = pieceTemplates[template];
+			int size = tiles.length;
+			if(size == 0 || size > MAX_SIZE){
+				throw new IllegalArgumentException("Piece templates have to be between 1 and " + MAX_SIZE + " tiles wide.");
+			}
+			int mask = 0;
+			for(int x = 0; x < size; x++){
+				if(tiles[x].length < size){
+					throw new IllegalArgumentException("Piece templates have to be square.");
+				}
+				for(int y = 0; y < size; y++){
+					if(tiles[x][y] != Tile.EMPTY){
+						mask |= 1 << (y * MAX_SIZE + x);
+						this.colorIndices[template] = tiles[x][y];
+					}
+				}
+			}
+			if(mask == 0){
+				throw new IllegalArgumentException("Piece templates need at least one tile.");
+			}
+			this.sizes[template] = size;
+			for(int rotation = 0; rotation < ROTATIONS; rotation++){
+				int index = template * ROTATIONS + rotation;
+				this.masks[index] = mask;
+				int columns = 0;
+				for(int y = 0; y < size; y++){
+					columns |= row(mask, y);
+				}
+				this.minX[index] = (byte) Integer.numberOfTrailingZeros(columns);
+				this.maxX[index] = (byte) (31 - Integer.numberOfLeadingZeros(columns));
+				this.minY[index] = (byte) (Integer.numberOfTrailingZeros(mask) / MAX_SIZE);
+				this.maxY[index] = (byte) ((31 - Integer.numberOfLeadingZeros(mask)) / MAX_SIZE);
+				mask = rotate(mask, size);
+			}
+		}
+	}
+
+	/**
+	 * Rotates a mask by 90 degrees, the tile at (x, y) ends up at (y, size - 1 - x).
+	 * @param mask: Mask to be rotated.
+	 * @param size: Side length of the mask.
+	 * @return The rotated mask.
+	 */
+	private static int rotate(int mask, int size){
+		int rotated = 0;
+		for(int y = 0; y < size; y++){
+			for(int x = 0; x < size; x++){
+				if((mask & (1 << (y * MAX_SIZE + x))) != 0){
+					rotated |= 1 << ((size - 1 - x) * MAX_SIZE + y);
+				}
+			}
+		}
+		return rotated;
+	}
+
+	/**
+	 * @param mask: A piece mask.
+	 * @param y: Row within the piece.
+	 * @return The tiles of the row, bit x set if column x is occupied.
+	 */
+	public static int row(int mask, int y){
+		return (mask >>> (y * MAX_SIZE)) & ROW_MASK;
+	}
+
+	public int getMask(int template, int rotation){
+		return masks[template * ROTATIONS + rotation];
+	}
+
+	/*
+	 * Extents of the occupied tiles, relative to the top left corner of the piece.
+	 */
+
+	public int getMinX(int template, int rotation){
+		return minX[template * ROTATIONS + rotation];
+	}
+
+	public int getMaxX(int template, int rotation){
+		return maxX[template * ROTATIONS + rotation];
+	}
+
+	public int getMinY(int template, int rotation){
+		return minY[template * ROTATIONS + rotation];
+	}
+
+	public int getMaxY(int template, int rotation){
+		return maxY[template * ROTATIONS + rotation];
+	}
+
+	public int getSize(int template){
+		return sizes[template];
+	}
+
+	public byte getColorIndex(int template){
+		return colorIndices[template];
+	}
+
+	public int getCount(){
+		return sizes.length;
+	}
+}
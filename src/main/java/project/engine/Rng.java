@@ -0,0 +1,63 @@
+package project.engine;
+
+/**
+ * A small, fast and seedable random number generator (SplitMix64).
+ * Every engine owns one, so games are reproducible from their seed and never share random state.
+ * Not thread safe, an instance belongs to one game.
+ */
+public final class Rng {
+	private long state;
+
+	/**
+	 * @param seed: Any value, equal seeds give equal sequences.
+	 */
+	public Rng(long seed){
+		this.state = seed;
+	}
+
+	/**
+	 * Copy constructor, the copy continues the same sequence independently.
+	 * @param rng: The generator to be copied.
+	 */
+	public Rng(Rng rng){
+		this.state = rng.state;
+	}
+
+	/**
+	 * @return The state of the generator, a generator seeded with it continues the same sequence.
+	 */
+	long getState(){
+		return state;
+	}
+
+	/**
+	 * @return The next 64 random bits.
+	 */
+	public long nextLong(){
+		long z = (this.state += 0x9E3779B97F4A7C15L);
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * @param bound: Upper bound (exclusive), has to be positive.
+	 * @return A random integer in [0, bound).
+	 */
+	public int nextInt(int bound){
+		if(bound <= 0){
+			throw new IllegalArgumentException("bound has to be positive.");
+		}
+		return (int) (((this.nextLong() >>> 32) * bound) >>> 32);
+	}
+
+	/**
+	 * Derives a well mixed seed from a base seed and an index, e.g. one seed per game in a batch.
+	 * @param seed: Base seed.
+	 * @param index: Index to mix in.
+	 * @return The derived seed.
+	 */
+	public static long mix(long seed, long index){
+		return new Rng(seed ^ (index * 0xD1B54A32D192ED03L)).nextLong();
+	}
+}
@@ -0,0 +1,86 @@
+package project.engine;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/**
+ * A snapshot holds the complete state of an engine: the board, the piece and the random state among the rest,
+ * so an engine read from it plays on exactly as the written one would have. Unlike a replay it does not have to be
+ * played through to be loaded, which takes well under a millisecond for boards of the usual size.
+ *
+ * Binary format, big endian:
+ * magic (int), version (byte), then the engine: seed (long), the piece generator, width and height, ticks, locks and
+ * lock buffer (varints), lost (byte), piece template, direction and rotation (bytes), piece column and row (zigzag varints),
+ * then the board: placed tiles, clear bonus and cleared rings (varints), chunk count (varint),
+ * and per chunk its index as the distance from the previous one (varint), a mask of its occupied rows (long),
+ * the occupied rows (longs) and the color of every occupied tile (bytes).
+ * The piece generator is its mode (byte), random state (long), template count, the count and templates left in the bag,
+ * and the preview length and upcoming spawns (varints).
+ * A CRC32 of everything before it closes the snapshot.
+ */
+public final class Snapshot {
+	public static final int MAGIC = 0x5454534E; // "TTSN"
+	public static final byte VERSION = 3;
+
+	private Snapshot(){}
+
+	/**
+	 * @param engine: The engine to be written.
+	 * @return The snapshot of the engine.
+	 */
+	public static byte[] write(Engine engine){
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+		try{
+			DataOutputStream data = new DataOutputStream(bytes);
+			data.writeInt(MAGIC);
+			data.writeByte(VERSION);
+			engine.write(data);
+			CRC32 crc = new CRC32();
+			crc.update(bytes.toByteArray());
+			data.writeInt((int) crc.getValue());
+			data.flush();
+		}
+		catch(IOException e){
+			// byte array streams do not fail
+			throw new IllegalStateException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Reads a snapshot written by write().
+	 * @param snapshot: The snapshot.
+	 * @return A new engine in the state of the snapshot.
+	 * @throws IOException If the bytes are not a snapshot of this version, or are damaged.
+	 */
+	public static Engine read(byte[] snapshot) throws IOException {
+		if(snapshot.length < Integer.BYTES + 1 + Integer.BYTES){
+			throw new EOFException("Snapshot is too short.");
+		}
+		int length = snapshot.length - Integer.BYTES;
+		CRC32 crc = new CRC32();
+		crc.update(snapshot, 0, length);
+		if((int) crc.getValue() != ByteBuffer.wrap(snapshot, length, Integer.BYTES).getInt()){
+			throw new IOException("Snapshot is damaged.");
+		}
+		DataInputStream data = new DataInputStream(new ByteArrayInputStream(snapshot, 0, length));
+		if(data.readInt() != MAGIC){
+			throw new IOException("Not a snapshot.");
+		}
+		byte version = data.readByte();
+		if(version != VERSION){
+			throw new IOException("Unsupported snapshot version " + version + ".");
+		}
+		Engine engine = Engine.read(data);
+		if(data.available() != 0){
+			throw new IOException("Snapshot has trailing bytes.");
+		}
+		return engine;
+	}
+}
@@ -0,0 +1,67 @@
+package project.engine;
+
+import java.util.Arrays;
+
+/**
+ * A speed curve decides how long a tick lasts as the game goes on.
+ * The level goes up every few locked pieces, and every level shortens the tick by a constant factor,
+ * down to a minimum tick length.
+ */
+public class SpeedCurve {
+	// 50ms ticks at the start, 5% faster every 10 pieces, never faster than 20ms
+	public static final SpeedCurve DEFAULT = new SpeedCurve(50_000_000, 20_000_000, 0.95, 10);
+
+	private final int locksPerLevel;
+	// tick length of every level until the minimum is reached, the last entry is the minimum
+	private final long[] tickLengths;
+
+	/**
+	 * @param startTickLength: Tick length at level 0, in nanoseconds.
+	 * @param minTickLength: Shortest tick length, in nanoseconds.
+	 * @param factor: Tick length multiplier per level, between 0 and 1.
+	 * @param locksPerLevel: Locked pieces per level.
+	 */
+	public SpeedCurve(long startTickLength, long minTickLength, double factor, int locksPerLevel){
+		if(minTickLength <= 0 || startTickLength < minTickLength){
+			throw new IllegalArgumentException("Tick lengths have to be positive, and start at least at the minimum.");
+		}
+		if(factor <= 0 || factor > 1){
+			throw new IllegalArgumentException("factor has to be in (0, 1].");
+		}
+		if(locksPerLevel <= 0){
+			throw new IllegalArgumentException("locksPerLevel has to be positive.");
+		}
+		this.locksPerLevel = locksPerLevel;
+		long[] lengths = new long[16];
+		int levels = 0;
+		double length = startTickLength;
+		while(true){
+			if(levels == lengths.length){
+				lengths = Arrays.copyOf(lengths, levels * 2);
+			}
+			if(length <= minTickLength || factor == 1){
+				lengths[levels++] = Math.max((long) length, minTickLength);
+				break;
+			}
+			lengths[levels++] = (long) length;
+			length *= factor;
+		}
+		this.tickLengths = Arrays.copyOf(lengths, levels);
+	}
+
+	/**
+	 * @param locks: Pieces locked so far.
+	 * @return The level reached.
+	 */
+	public int levelOf(int locks){
+		return locks / locksPerLevel;
+	}
+
+	/**
+	 * @param level: Level, as returned by levelOf.
+	 * @return The tick length at the given level, in nanoseconds.
+	 */
+	public long tickLength(int level){
+		return tickLengths[Math.min(level, tickLengths.length - 1)];
+	}
+}
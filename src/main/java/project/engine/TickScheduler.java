@@ -0,0 +1,72 @@
+package project.engine;
+
+/**
+ * The tick scheduler turns elapsed wall time into a fixed timestep of game ticks.
+ * Time is accumulated as it passes, and ticks are taken out of it at whatever length the game currently runs at.
+ * Ticks owed after a stall are caught up over the following frames, a bounded amount per frame,
+ * and anything beyond the backlog limit is dropped so a long stall doesn't fast-forward the game.
+ */
+public class TickScheduler {
+	public static final int MAX_TICKS_PER_FRAME = 5;
+	public static final long MAX_BACKLOG = 1_000_000_000;
+
+	private final int maxTicksPerFrame;
+	private final long maxBacklog;
+	private long accumulated = 0;
+	private int ticksThisFrame = 0;
+
+	public TickScheduler(){
+		this(MAX_TICKS_PER_FRAME, MAX_BACKLOG);
+	}
+
+	/**
+	 * @param maxTicksPerFrame: Most ticks taken between two calls to advance.
+	 * @param maxBacklog: Most time kept owed, in nanoseconds.
+	 */
+	public TickScheduler(int maxTicksPerFrame, long maxBacklog){
+		if(maxTicksPerFrame <= 0 || maxBacklog <= 0){
+			throw new IllegalArgumentException("Tick budget and backlog have to be positive.");
+		}
+		this.maxTicksPerFrame = maxTicksPerFrame;
+		this.maxBacklog = maxBacklog;
+	}
+
+	/**
+	 * Adds the time passed since the last frame, and starts a new frame.
+	 * @param elapsed: Time passed in nanoseconds.
+	 */
+	public void advance(long elapsed){
+		this.accumulated = Math.min(this.accumulated + Math.max(elapsed, 0), this.maxBacklog);
+		this.ticksThisFrame = 0;
+	}
+
+	/**
+	 * Takes one tick out of the accumulated time, if there is enough of it and the frame has budget left.
+	 * @param tickLength: Current tick length in nanoseconds.
+	 * @return Returns true if a tick should be run.
+	 */
+	public boolean nextTick(long tickLength){
+		if(this.ticksThisFrame < this.maxTicksPerFrame && this.accumulated >= tickLength){
+			this.accumulated -= tickLength;
+			this.ticksThisFrame++;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @param tickLength: Current tick length in nanoseconds.
+	 * @return How far into the next tick the accumulated time is, between 0 and 1. Used to interpolate drawing.
+	 */
+	public double getAlpha(long tickLength){
+		return Math.min(1.0, (double) this.accumulated / tickLength);
+	}
+
+	/**
+	 * Forgets the accumulated time, e.g. after a pause.
+	 */
+	public void reset(){
+		this.accumulated = 0;
+		this.ticksThisFrame = 0;
+	}
+}
@@ -0,0 +1,20 @@
+package project.engine;
+
+/**
+ * The tile class lists the palette indices stored on the board.
+ * The engine only deals in indices, it is up to the frontend to decide what they look like.
+ */
+public final class Tile {
+	public static final byte EMPTY = 0;
+	public static final byte CENTER = 1;
+	public static final byte T = 2;
+	public static final byte I = 3;
+	public static final byte SQUARE = 4;
+	public static final byte L_1 = 5;
+	public static final byte L_2 = 6;
+	public static final byte Z_1 = 7;
+	public static final byte Z_2 = 8;
+	public static final int COUNT = 9;
+
+	private Tile(){}
+}
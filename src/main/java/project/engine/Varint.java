@@ -0,0 +1,94 @@
+package project.engine;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * The varint codec shared by the snapshot, replay and spectator formats. A varint holds 7 bits of the value per byte,
+ * least significant first, the high bit set on every byte but the last, so small values take a single byte.
+ * Signed values are zigzag encoded first, mapping values near zero of either sign to small varints.
+ */
+public final class Varint {
+	private Varint(){}
+
+	/**
+	 * A source of the bytes making up a varint, e.g. a stream or a buffer refilled as it runs dry.
+	 */
+	public interface ByteSource {
+		/**
+		 * @return The next byte.
+		 * @throws IOException If there is no next byte.
+		 */
+		byte get() throws IOException;
+	}
+
+	/**
+	 * @param data: Stream to write to.
+	 * @param value: The value, read as unsigned.
+	 * @throws IOException If the stream fails.
+	 */
+	public static void write(DataOutput data, long value) throws IOException {
+		while((value & ~0x7FL) != 0){
+			data.writeByte((int) (value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		data.writeByte((int) value);
+	}
+
+	/**
+	 * @param buffer: Buffer to put the varint into, with room for it.
+	 * @param value: The value, read as unsigned.
+	 */
+	public static void put(ByteBuffer buffer, long value){
+		while((value & ~0x7FL) != 0){
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+
+	/**
+	 * @param data: Stream to read from.
+	 * @return The value.
+	 * @throws IOException If the stream fails or ends within the varint, or the varint is longer than a long.
+	 */
+	public static long read(DataInput data) throws IOException {
+		return read(data::readByte);
+	}
+
+	/**
+	 * @param source: Bytes to read from.
+	 * @return The value.
+	 * @throws IOException If the source fails, or the varint is longer than a long.
+	 */
+	public static long read(ByteSource source) throws IOException {
+		long value = 0;
+		for(int shift = 0; shift < Long.SIZE; shift += 7){
+			byte b = source.get();
+			value |= (long) (b & 0x7F) << shift;
+			if(b >= 0){
+				return value;
+			}
+		}
+		throw new IOException("Malformed varint.");
+	}
+
+	/**
+	 * @param value: A signed value.
+	 * @return The value zigzag encoded, to be written as a varint.
+	 */
+	public static long zigzag(int value){
+		return (value << 1 ^ value >> 31) & 0xFFFFFFFFL;
+	}
+
+	/**
+	 * @param value: A zigzag encoded value, as read from a varint.
+	 * @return The signed value.
+	 */
+	public static int unzigzag(long value){
+		int encoded = (int) value;
+		return encoded >>> 1 ^ -(encoded & 1);
+	}
+}
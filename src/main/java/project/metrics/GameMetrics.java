@@ -0,0 +1,173 @@
+package project.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Game metrics count and time the hot paths of the running game: ticks, rendering, input to redraw latency,
+ * locked pieces and collision checks. One instance is shared by every game of the application,
+ * and registered as an MBean the first time it is used.
+ * Recording allocates nothing, and reading is safe from any thread.
+ */
+public final class GameMetrics implements GameMetricsMBean {
+	public static final String OBJECT_NAME = "project:type=GameMetrics";
+
+	private static GameMetrics shared = null;
+
+	private final LatencyHistogram ticks = new LatencyHistogram();
+	private final LatencyHistogram renders = new LatencyHistogram();
+	private final LatencyHistogram inputs = new LatencyHistogram();
+	private final AtomicLong piecesLocked = new AtomicLong();
+	private final AtomicLong collisionChecks = new AtomicLong();
+
+	/**
+	 * @return The metrics shared by the application, registered with the platform MBean server.
+	 */
+	public static synchronized GameMetrics shared(){
+		if(shared == null){
+			shared = new GameMetrics();
+			try{
+				ManagementFactory.getPlatformMBeanServer().registerMBean(shared, new ObjectName(OBJECT_NAME));
+			}catch(JMException e){
+				System.out.println("Could not register game metrics: " + e);
+			}
+		}
+		return shared;
+	}
+
+	/**
+	 * @param nanos: Duration of a tick.
+	 */
+	public void recordTick(long nanos){
+		this.ticks.record(nanos);
+	}
+
+	/**
+	 * @param nanos: Duration of drawing a frame.
+	 */
+	public void recordRender(long nanos){
+		this.renders.record(nanos);
+	}
+
+	/**
+	 * @param nanos: Time from an input moving the piece until the piece was redrawn.
+	 */
+	public void recordInputToRedraw(long nanos){
+		this.inputs.record(nanos);
+	}
+
+	public void pieceLocked(){
+		this.piecesLocked.incrementAndGet();
+	}
+
+	/**
+	 * @param checks: Collision checks made since the last call.
+	 */
+	public void addCollisionChecks(long checks){
+		this.collisionChecks.addAndGet(checks);
+	}
+
+	private static long micros(long nanos){
+		return TimeUnit.NANOSECONDS.toMicros(nanos);
+	}
+
+	@Override
+	public void reset(){
+		this.ticks.reset();
+		this.renders.reset();
+		this.inputs.reset();
+		this.piecesLocked.set(0);
+		this.collisionChecks.set(0);
+	}
+
+	/*
+	 * ---------------
+	 * Getter methods.
+	 * ---------------
+	 */
+
+	public LatencyHistogram getTicks(){
+		return ticks;
+	}
+
+	public LatencyHistogram getRenders(){
+		return renders;
+	}
+
+	public LatencyHistogram getInputs(){
+		return inputs;
+	}
+
+	@Override
+	public long getTickCount(){
+		return ticks.getCount();
+	}
+
+	@Override
+	public long getTickP50Micros(){
+		return micros(ticks.getPercentile(50));
+	}
+
+	@Override
+	public long getTickP99Micros(){
+		return micros(ticks.getPercentile(99));
+	}
+
+	@Override
+	public long getTickMaxMicros(){
+		return micros(ticks.getMax());
+	}
+
+	@Override
+	public long getRenderCount(){
+		return renders.getCount();
+	}
+
+	@Override
+	public long getRenderP50Micros(){
+		return micros(renders.getPercentile(50));
+	}
+
+	@Override
+	public long getRenderP99Micros(){
+		return micros(renders.getPercentile(99));
+	}
+
+	@Override
+	public long getRenderMaxMicros(){
+		return micros(renders.getMax());
+	}
+
+	@Override
+	public long getInputCount(){
+		return inputs.getCount();
+	}
+
+	@Override
+	public long getInputToRedrawP50Micros(){
+		return micros(inputs.getPercentile(50));
+	}
+
+	@Override
+	public long getInputToRedrawP99Micros(){
+		return micros(inputs.getPercentile(99));
+	}
+
+	@Override
+	public long getInputToRedrawMaxMicros(){
+		return micros(inputs.getMax());
+	}
+
+	@Override
+	public long getPiecesLocked(){
+		return piecesLocked.get();
+	}
+
+	@Override
+	public long getCollisionChecks(){
+		return collisionChecks.get();
+	}
+}
@@ -0,0 +1,29 @@
+package project.metrics;
+
+/**
+ * Management interface of the game metrics, see GameMetrics. Durations are in microseconds.
+ */
+public interface GameMetricsMBean {
+	long getTickCount();
+	long getTickP50Micros();
+	long getTickP99Micros();
+	long getTickMaxMicros();
+
+	long getRenderCount();
+	long getRenderP50Micros();
+	long getRenderP99Micros();
+	long getRenderMaxMicros();
+
+	long getInputCount();
+	long getInputToRedrawP50Micros();
+	long getInputToRedrawP99Micros();
+	long getInputToRedrawMaxMicros();
+
+	long getPiecesLocked();
+	long getCollisionChecks();
+
+	/**
+	 * Forgets everything counted so far.
+	 */
+	void reset();
+}
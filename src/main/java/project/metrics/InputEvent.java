@@ -0,0 +1,22 @@
+package project.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event marking the redraw of a piece moved by input, committed once the piece is on screen.
+ */
+@Name("project.InputToRedraw")
+@Label("Input To Redraw")
+@Category("TETRIS")
+@Description("An input moved the piece, and the piece has been redrawn.")
+public class InputEvent extends Event {
+	@Label("Latency")
+	@Description("Time from the input until the redraw.")
+	@Timespan(Timespan.NANOSECONDS)
+	public long latency;
+}
@@ -0,0 +1,115 @@
+package project.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A latency histogram counts durations in buckets of roughly equal relative width, every power of two split in eight,
+ * so percentiles are off by at most an eighth. Recording is a few atomic increments and allocates nothing,
+ * and the histogram can be read from any thread while it is recorded to.
+ */
+public final class LatencyHistogram {
+	private static final int SUB_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BITS;
+	private static final int BUCKETS = (Long.SIZE - SUB_BITS) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong sum = new AtomicLong();
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * @param value: A non-negative value.
+	 * @return The bucket counting the value.
+	 */
+	static int bucketOf(long value){
+		if(value < SUB_BUCKETS){
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+	}
+
+	/**
+	 * @param bucket: A bucket.
+	 * @return The largest value counted by the bucket.
+	 */
+	static long upperBound(int bucket){
+		if(bucket < SUB_BUCKETS){
+			return bucket;
+		}
+		int exponent = bucket / SUB_BUCKETS - 1 + SUB_BITS;
+		int sub = bucket % SUB_BUCKETS;
+		long step = 1L << (exponent - SUB_BITS);
+		return (1L << exponent) + (sub + 1) * step - 1;
+	}
+
+	/**
+	 * @param nanos: Duration to be counted, negative durations count as zero.
+	 */
+	public void record(long nanos){
+		long value = Math.max(nanos, 0);
+		this.counts.incrementAndGet(bucketOf(value));
+		this.count.incrementAndGet();
+		this.sum.addAndGet(value);
+		this.max.accumulateAndGet(value, Math::max);
+	}
+
+	/**
+	 * @param percentile: Between 0 and 100.
+	 * @return The duration the passed percentage of recorded durations is at or below, 0 if nothing is recorded.
+	 */
+	public long getPercentile(double percentile){
+		if(percentile < 0 || percentile > 100){
+			throw new IllegalArgumentException("percentile has to be between 0 and 100.");
+		}
+		long total = this.count.get();
+		if(total == 0){
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+		long seen = 0;
+		for(int bucket = 0; bucket < BUCKETS; bucket++){
+			seen += this.counts.get(bucket);
+			if(seen >= rank){
+				return Math.min(upperBound(bucket), this.max.get());
+			}
+		}
+		return this.max.get();
+	}
+
+	/**
+	 * Forgets everything recorded. Durations recorded meanwhile may be partly forgotten.
+	 */
+	public void reset(){
+		for(int bucket = 0; bucket < BUCKETS; bucket++){
+			this.counts.set(bucket, 0);
+		}
+		this.count.set(0);
+		this.sum.set(0);
+		this.max.set(0);
+	}
+
+	/*
+	 * ---------------
+	 * Getter methods.
+	 * ---------------
+	 */
+
+	public long getCount(){
+		return count.get();
+	}
+
+	public long getMax(){
+		return max.get();
+	}
+
+	/**
+	 * @return The mean duration, 0 if nothing is recorded.
+	 */
+	public double getMean(){
+		long total = count.get();
+		return total == 0 ? 0 : (double) sum.get() / total;
+	}
+}
@@ -0,0 +1,17 @@
+package project.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event spanning the drawing of one frame.
+ */
+@Name("project.Render")
+@Label("Render")
+@Category("TETRIS")
+@Description("Drawing the falling piece of one frame.")
+public class RenderEvent extends Event {
+}
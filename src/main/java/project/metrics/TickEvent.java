@@ -0,0 +1,20 @@
+package project.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event spanning one game tick.
+ */
+@Name("project.Tick")
+@Label("Tick")
+@Category("TETRIS")
+@Description("One step of gravity, including locking and drawing a landed piece.")
+public class TickEvent extends Event {
+	@Label("Result")
+	@Description("Step result flags, see Engine.")
+	public int result;
+}
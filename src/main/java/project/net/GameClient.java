@@ -0,0 +1,172 @@
+package project.net;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import project.engine.Action;
+import project.engine.Board;
+import project.engine.Piece;
+
+/**
+ * The client end of a GameServer connection, free of any frontend.
+ * It keeps a mirror of the board by placing every locked piece it is told of, which clears the same rings the server
+ * cleared, so the board itself is never sent. Messages are read on a thread of the client's own and passed to a listener.
+ */
+public class GameClient implements AutoCloseable {
+	private final SocketChannel channel;
+	private final Listener listener;
+	private final Thread reader;
+	// one message at a time, sends come from whichever thread handles input
+	private final ByteBuffer sendBuffer = ByteBuffer.allocate(Protocol.JOIN_LENGTH);
+	// reader thread only
+	private Board board = null;
+	// a locked piece waits for the frame of its step
+	private Piece locked = null;
+
+	/**
+	 * Receives what the server sends, on the reader thread.
+	 */
+	public interface Listener {
+		/**
+		 * A new game has started, on an empty board.
+		 */
+		void welcome(long seed, Board board);
+
+		/**
+		 * The state of the game after a tick or an input.
+		 * @param flags: Flags of the step, as returned by Engine.step().
+		 * @param score: Score of the game.
+		 * @param piece: The falling piece.
+		 * @param locked: The piece locked by the step, already placed on the board, null if none was.
+		 */
+		void frame(int flags, int score, Piece piece, Piece locked);
+
+		/**
+		 * The connection is gone, either side having closed it.
+		 */
+		void closed();
+	}
+
+	/**
+	 * Connects to a server, nothing is played until join() is called.
+	 * @param host: Server host.
+	 * @param port: Server port.
+	 * @param listener: Receives what the server sends.
+	 * @throws IOException if the server cannot be reached.
+	 */
+	public GameClient(String host, int port, Listener listener) throws IOException {
+		if(listener == null){
+			throw new IllegalArgumentException("listener cannot be null.");
+		}
+		this.listener = listener;
+		this.channel = SocketChannel.open(new InetSocketAddress(host, port));
+		this.channel.socket().setTcpNoDelay(true);
+		this.reader = new Thread(this::read, "game-client");
+		this.reader.setDaemon(true);
+		this.reader.start();
+	}
+
+	/**
+	 * Asks for a new game, replacing the current one.
+	 * @param gridWidth: Columns making up the board.
+	 * @param gridHeight: Rows making up the board.
+	 * @throws IOException if sending fails.
+	 */
+	public synchronized void join(int gridWidth, int gridHeight) throws IOException {
+		this.sendBuffer.clear();
+		Protocol.putJoin(this.sendBuffer, gridWidth, gridHeight);
+		this.send();
+	}
+
+	/**
+	 * Sends a player input, applied by the server as soon as it arrives.
+	 * @param action: Any action but TICK.
+	 * @throws IOException if sending fails.
+	 */
+	public synchronized void input(Action action) throws IOException {
+		this.sendBuffer.clear();
+		Protocol.putInput(this.sendBuffer, action);
+		this.send();
+	}
+
+	private void send() throws IOException {
+		this.sendBuffer.flip();
+		while(this.sendBuffer.hasRemaining()){
+			this.channel.write(this.sendBuffer);
+		}
+	}
+
+	/**
+	 * The reader loop, decoding messages until the connection closes.
+	 */
+	private void read(){
+		ByteBuffer buffer = ByteBuffer.allocate(4096);
+		try{
+			while(this.channel.read(buffer) >= 0){
+				buffer.flip();
+				while(buffer.hasRemaining()){
+					int length = Protocol.serverMessageLength(buffer.get(buffer.position()));
+					if(length < 0){
+						throw new IOException("Unknown message " + buffer.get(buffer.position()));
+					}
+					if(buffer.remaining() < length){
+						break;
+					}
+					this.handle(buffer);
+				}
+				buffer.compact();
+			}
+		}
+		catch(IOException | IllegalArgumentException e){
+			if(this.channel.isOpen()){
+				System.out.println("Connection to server failed: " + e);
+			}
+		}
+		finally{
+			this.closeQuietly();
+			this.listener.closed();
+		}
+	}
+
+	/**
+	 * Handles one complete message.
+	 * @param buffer: Buffer positioned at the type byte.
+	 */
+	private void handle(ByteBuffer buffer){
+		byte type = buffer.get();
+		switch(type){
+			case Protocol.WELCOME -> {
+				long seed = buffer.getLong();
+				this.board = new Board(buffer.getInt(), buffer.getInt());
+				this.listener.welcome(seed, this.board);
+			}
+			case Protocol.LOCKED -> this.locked = Protocol.getPose(buffer);
+			default -> {
+				int flags = buffer.get();
+				int score = buffer.getInt();
+				Piece piece = Protocol.getPose(buffer);
+				Piece locked = this.locked;
+				if(locked != null){
+					this.board.makeCurrentBoardArr(locked);
+					this.locked = null;
+				}
+				this.listener.frame(flags, score, piece, locked);
+			}
+		}
+	}
+
+	private void closeQuietly(){
+		try{
+			this.channel.close();
+		}
+		catch(IOException e){
+			System.out.println("Could not close connection: " + e);
+		}
+	}
+
+	@Override
+	public void close(){
+		this.closeQuietly();
+	}
+}
@@ -0,0 +1,222 @@
+package project.net;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import project.engine.Rng;
+import project.engine.SpeedCurve;
+
+/**
+ * The game server hosts many games in one JVM, one per connection, with the server being the authority on all of them.
+ * A single selector thread accepts connections, reads inputs and writes frames, while the ticks of every game run on
+ * one shared pool of worker threads. Neither kind of thread ever blocks on a client.
+ * See Protocol for what is sent, and GameClient for the other end.
+ */
+public class GameServer implements AutoCloseable {
+	public static final int DEFAULT_PORT = 4410;
+
+	private final ServerSocketChannel serverChannel;
+	private final Selector selector;
+	private final ScheduledExecutorService workers;
+	private final SpeedCurve speedCurve;
+	private final Thread selectorThread;
+	// sessions with frames to write, handed from the workers to the selector thread
+	private final Queue<Session> flushes = new ConcurrentLinkedQueue<>();
+	private final AtomicBoolean wakeupQueued = new AtomicBoolean();
+	private final AtomicInteger sessionCount = new AtomicInteger();
+	// selector thread only
+	private final Rng seeds = new Rng(System.nanoTime());
+	private volatile boolean running = true;
+
+	/**
+	 * Binds the server, games are played once it is started.
+	 * @param port: Port to listen on, 0 picks a free one.
+	 * @param workerCount: Threads ticking the games.
+	 * @param speedCurve: Tick length of the games as they go on.
+	 * @throws IOException if the port cannot be bound.
+	 */
+	public GameServer(int port, int workerCount, SpeedCurve speedCurve) throws IOException {
+		if(workerCount <= 0){
+			throw new IllegalArgumentException("workerCount has to be positive.");
+		}
+		if(speedCurve == null){
+			throw new IllegalArgumentException("speedCurve cannot be null.");
+		}
+		this.speedCurve = speedCurve;
+		this.selector = Selector.open();
+		this.serverChannel = ServerSocketChannel.open();
+		this.serverChannel.bind(new InetSocketAddress(port), 1024);
+		this.serverChannel.configureBlocking(false);
+		this.serverChannel.register(this.selector, SelectionKey.OP_ACCEPT);
+		AtomicInteger workerIndex = new AtomicInteger();
+		this.workers = Executors.newScheduledThreadPool(workerCount, runnable -> {
+			Thread thread = new Thread(runnable, "server-worker-" + workerIndex.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.selectorThread = new Thread(this::run, "server-selector");
+	}
+
+	public void start(){
+		this.selectorThread.start();
+	}
+
+	/**
+	 * The selector loop: queued flushes first, then whatever the sockets are ready for.
+	 */
+	private void run(){
+		while(this.running){
+			try{
+				this.selector.select();
+				this.wakeupQueued.set(false);
+				for(Session session; (session = this.flushes.poll()) != null;){
+					session.flushQueued.set(false);
+					this.handle(session, SelectionKey.OP_WRITE);
+				}
+				Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+				while(keys.hasNext()){
+					SelectionKey key = keys.next();
+					keys.remove();
+					if(!key.isValid()){
+						continue;
+					}
+					if(key.isAcceptable()){
+						this.accept();
+						continue;
+					}
+					Session session = (Session) key.attachment();
+					if(key.isReadable()){
+						this.handle(session, SelectionKey.OP_READ);
+					}
+					if(key.isValid() && key.isWritable()){
+						this.handle(session, SelectionKey.OP_WRITE);
+					}
+				}
+			}
+			catch(IOException e){
+				System.out.println("Server selector failed: " + e);
+			}
+		}
+	}
+
+	/**
+	 * Accepts every pending connection.
+	 */
+	private void accept() throws IOException {
+		for(SocketChannel channel; (channel = this.serverChannel.accept()) != null;){
+			channel.configureBlocking(false);
+			channel.socket().setTcpNoDelay(true);
+			SelectionKey key = channel.register(this.selector, SelectionKey.OP_READ);
+			key.attach(new Session(this, channel, key));
+			this.sessionCount.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Reads from or writes to a session, closing it when the client leaves or misbehaves.
+	 */
+	private void handle(Session session, int operation){
+		if(!session.getKey().isValid()){
+			return;
+		}
+		boolean open;
+		try{
+			open = operation == SelectionKey.OP_READ ? session.read() : session.write();
+		}
+		catch(IOException e){
+			open = false;
+		}
+		if(!open){
+			session.close();
+			this.sessionCount.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Queues a session to have its frames written by the selector thread. Safe to call from any thread.
+	 * @param session: The session.
+	 */
+	void requestFlush(Session session){
+		if(session.flushQueued.compareAndSet(false, true)){
+			this.flushes.add(session);
+			// one wakeup covers every flush queued until the selector gets to them
+			if(this.wakeupQueued.compareAndSet(false, true)){
+				this.selector.wakeup();
+			}
+		}
+	}
+
+	/**
+	 * @return Seed of a new game. Selector thread only.
+	 */
+	long nextSeed(){
+		return this.seeds.nextLong();
+	}
+
+	ScheduledExecutorService getWorkers(){
+		return workers;
+	}
+
+	SpeedCurve getSpeedCurve(){
+		return speedCurve;
+	}
+
+	/**
+	 * @return The port the server listens on.
+	 */
+	public int getPort(){
+		return serverChannel.socket().getLocalPort();
+	}
+
+	/**
+	 * @return The amount of open connections.
+	 */
+	public int getSessionCount(){
+		return sessionCount.get();
+	}
+
+	/**
+	 * Stops the server, closing every connection.
+	 */
+	@Override
+	public void close() throws IOException {
+		this.running = false;
+		this.selector.wakeup();
+		try{
+			this.selectorThread.join();
+		}
+		catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+		}
+		this.workers.shutdownNow();
+		for(SelectionKey key : this.selector.keys()){
+			if(key.attachment() instanceof Session session){
+				session.close();
+			}
+		}
+		this.selector.close();
+		this.serverChannel.close();
+	}
+
+	/**
+	 * Runs a server until the process is killed.
+	 * @param args: [port] [worker threads], defaulting to DEFAULT_PORT and one worker per core.
+	 */
+	public static void main(String[] args) throws IOException {
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+		int workerCount = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		GameServer server = new GameServer(port, workerCount, SpeedCurve.DEFAULT);
+		server.start();
+		System.out.printf("Listening on port %d, %d workers%n", server.getPort(), workerCount);
+	}
+}
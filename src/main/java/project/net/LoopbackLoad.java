@@ -0,0 +1,151 @@
+package project.net;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import project.engine.Action;
+import project.engine.Engine;
+import project.engine.Rng;
+import project.engine.SpeedCurve;
+
+/**
+ * Loads a server with many clients over loopback, each sending a random input every few ticks and joining a new game
+ * whenever it loses. The clients share a single selector, so thousands of them take no more than one thread.
+ * Reports the frames received per second, which at full pace is one per tick per client, plus one per moving input.
+ * Bytes the socket does not take at once are kept and flushed when it is writable again. Inputs which do not fit behind them
+ * are dropped and reported, so a server falling behind shows in the report rather than as lost bytes.
+ */
+public class LoopbackLoad {
+	private static final int GRID_SIZE = 40;
+	// nanoseconds between the inputs of a client
+	private static final long INPUT_INTERVAL = 150_000_000;
+	// bytes a client may have waiting to be sent
+	private static final int OUTGOING_CAPACITY = 256;
+
+	/**
+	 * A loopback client, reading nothing but frame flags.
+	 */
+	private static final class Client {
+		final SocketChannel channel;
+		final ByteBuffer incoming = ByteBuffer.allocate(8192);
+		// messages not sent yet, left in write mode between sends
+		final ByteBuffer outgoing = ByteBuffer.allocate(OUTGOING_CAPACITY);
+		SelectionKey key;
+		long nextInput;
+
+		Client(SocketChannel channel, long nextInput){
+			this.channel = channel;
+			this.nextInput = nextInput;
+		}
+
+		/**
+		 * @return True if an input fits behind the messages waiting to be sent, leaving room for a join.
+		 */
+		boolean canQueueInput(){
+			return this.outgoing.remaining() >= Protocol.INPUT_LENGTH + Protocol.JOIN_LENGTH;
+		}
+
+		/**
+		 * Writes as much of the waiting messages as the socket takes, and waits for it to be writable if any are left.
+		 */
+		void send() throws IOException {
+			this.outgoing.flip();
+			this.channel.write(this.outgoing);
+			this.outgoing.compact();
+			this.key.interestOps(this.outgoing.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+		}
+	}
+
+	/**
+	 * Starts a server in this JVM and loads it.
+	 * @param args: [clients] [seconds] [worker threads], defaulting to 1000 clients for 10 seconds on one worker per core.
+	 */
+	public static void main(String[] args) throws IOException {
+		int clientCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+		int workerCount = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+		try(GameServer server = new GameServer(0, workerCount, SpeedCurve.DEFAULT); Selector selector = Selector.open()){
+			server.start();
+			Rng rng = new Rng(0);
+			long start = System.nanoTime();
+			Client[] clients = new Client[clientCount];
+			for(int i = 0; i < clientCount; i++){
+				SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", server.getPort()));
+				channel.configureBlocking(false);
+				channel.socket().setTcpNoDelay(true);
+				clients[i] = new Client(channel, start + rng.nextInt((int) INPUT_INTERVAL));
+				clients[i].key = channel.register(selector, SelectionKey.OP_READ, clients[i]);
+				Protocol.putJoin(clients[i].outgoing, GRID_SIZE, GRID_SIZE);
+				clients[i].send();
+			}
+			System.out.printf("Connected %d clients in %.0f ms, %d sessions%n", clientCount, (System.nanoTime() - start) / 1e6, server.getSessionCount());
+
+			long frames = 0;
+			long locks = 0;
+			long dropped = 0;
+			long games = clientCount;
+			long end = System.nanoTime() + seconds * 1_000_000_000L;
+			long measureStart = System.nanoTime();
+			while(System.nanoTime() < end){
+				selector.select(10);
+				for(SelectionKey key : selector.selectedKeys()){
+					Client client = (Client) key.attachment();
+					if(key.isWritable()){
+						client.send();
+					}
+					if(!key.isReadable()){
+						continue;
+					}
+					if(client.channel.read(client.incoming) < 0){
+						throw new IOException("Server closed a connection.");
+					}
+					client.incoming.flip();
+					while(client.incoming.hasRemaining()){
+						int length = Protocol.serverMessageLength(client.incoming.get(client.incoming.position()));
+						if(length < 0){
+							throw new IOException("Unknown message.");
+						}
+						if(client.incoming.remaining() < length){
+							break;
+						}
+						boolean frame = client.incoming.get(client.incoming.position()) == Protocol.FRAME;
+						int flags = client.incoming.get(client.incoming.position() + 1);
+						client.incoming.position(client.incoming.position() + length);
+						if(frame){
+							frames++;
+							if((flags & Engine.LOCKED) != 0){
+								locks++;
+							}
+							if((flags & Engine.LOST) != 0){
+								Protocol.putJoin(client.outgoing, GRID_SIZE, GRID_SIZE);
+								client.send();
+								games++;
+							}
+						}
+					}
+					client.incoming.compact();
+				}
+				selector.selectedKeys().clear();
+				long now = System.nanoTime();
+				for(Client client : clients){
+					if(now >= client.nextInput){
+						if(client.canQueueInput()){
+							Protocol.putInput(client.outgoing, Action.values()[rng.nextInt(Action.TICK.ordinal())]);
+							client.send();
+						}
+						else{
+							dropped++;
+						}
+						client.nextInput = now + INPUT_INTERVAL;
+					}
+				}
+			}
+			double elapsed = (System.nanoTime() - measureStart) / 1e9;
+			System.out.printf("%d sessions, %.0f frames/s (%.1f per client), %d locks, %d games, %d inputs dropped in %.1f s%n",
+					server.getSessionCount(), frames / elapsed, frames / elapsed / clientCount, locks, games, dropped, elapsed);
+		}
+	}
+}
@@ -0,0 +1,138 @@
+package project.net;
+
+import java.nio.ByteBuffer;
+import project.engine.Action;
+import project.engine.Engine;
+import project.engine.Piece;
+
+/**
+ * The binary protocol spoken between GameServer and GameClient over TCP.
+ * Every message is a type byte followed by a fixed amount of bytes, big endian, so no length prefix is needed.
+ *
+ * Client to server:
+ * JOIN (width int, height int) starts a new game on the connection, also after a lost one.
+ * INPUT (action code byte) applies one player input to the game right away.
+ *
+ * Server to client:
+ * WELCOME (seed long, width int, height int) opens a game.
+ * LOCKED (pose) is sent when a piece locks, the client places it on its own board, clearing rings as the server did.
+ * FRAME (flags byte, score int, pose) is sent after every tick and every input that moved the piece,
+ * the flags being those of Engine.step().
+ * A pose is the template, direction and rotation bytes followed by the column and row ints of a piece.
+ */
+public final class Protocol {
+	// client to server
+	public static final byte JOIN = 1;
+	public static final byte INPUT = 2;
+	// server to client
+	public static final byte WELCOME = 1;
+	public static final byte FRAME = 2;
+	public static final byte LOCKED = 3;
+
+	public static final int POSE_LENGTH = 3 + 2 * Integer.BYTES;
+	public static final int JOIN_LENGTH = 1 + 2 * Integer.BYTES;
+	public static final int INPUT_LENGTH = 2;
+	public static final int WELCOME_LENGTH = 1 + Long.BYTES + 2 * Integer.BYTES;
+	public static final int FRAME_LENGTH = 2 + Integer.BYTES + POSE_LENGTH;
+	public static final int LOCKED_LENGTH = 1 + POSE_LENGTH;
+	// boards a client may ask for
+	public static final int MIN_SIZE = 8;
+	public static final int MAX_SIZE = 1024;
+
+	// action codes, fixed by the protocol, do not reorder
+	private static final Action[] CODES = {Action.UP, Action.DOWN, Action.LEFT, Action.RIGHT, Action.ROTATE, Action.FALL, Action.HARD_DROP};
+
+	private Protocol(){}
+
+	/**
+	 * @param type: Type byte of a message sent by a client.
+	 * @return The length of the message including the type byte, -1 if there is no such message.
+	 */
+	public static int clientMessageLength(byte type){
+		return switch(type){
+			case JOIN -> JOIN_LENGTH;
+			case INPUT -> INPUT_LENGTH;
+			default -> -1;
+		};
+	}
+
+	/**
+	 * @param type: Type byte of a message sent by the server.
+	 * @return The length of the message including the type byte, -1 if there is no such message.
+	 */
+	public static int serverMessageLength(byte type){
+		return switch(type){
+			case WELCOME -> WELCOME_LENGTH;
+			case FRAME -> FRAME_LENGTH;
+			case LOCKED -> LOCKED_LENGTH;
+			default -> -1;
+		};
+	}
+
+	/**
+	 * @param action: Action to be looked up.
+	 * @return The code of the action, -1 if it cannot be sent (TICK).
+	 */
+	public static int code(Action action){
+		for(int i = 0; i < CODES.length; i++){
+			if(CODES[i] == action){
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @param code: Action code as received.
+	 * @return The action, null if there is no such code.
+	 */
+	public static Action action(int code){
+		return code >= 0 && code < CODES.length ? CODES[code] : null;
+	}
+
+	public static void putJoin(ByteBuffer buffer, int gridWidth, int gridHeight){
+		buffer.put(JOIN).putInt(gridWidth).putInt(gridHeight);
+	}
+
+	public static void putInput(ByteBuffer buffer, Action action){
+		int code = code(action);
+		if(code < 0){
+			throw new IllegalArgumentException(action + " cannot be sent.");
+		}
+		buffer.put(INPUT).put((byte) code);
+	}
+
+	public static void putWelcome(ByteBuffer buffer, long seed, int gridWidth, int gridHeight){
+		buffer.put(WELCOME).putLong(seed).putInt(gridWidth).putInt(gridHeight);
+	}
+
+	public static void putFrame(ByteBuffer buffer, int flags, int score, Piece piece){
+		buffer.put(FRAME).put((byte) flags).putInt(score);
+		putPose(buffer, piece);
+	}
+
+	public static void putLocked(ByteBuffer buffer, Piece piece){
+		buffer.put(LOCKED);
+		putPose(buffer, piece);
+	}
+
+	private static void putPose(ByteBuffer buffer, Piece piece){
+		buffer.put((byte) piece.getTemplate()).put((byte) piece.getDirection()).put((byte) piece.getRotation())
+				.putInt(piece.getXPos()).putInt(piece.getYPos());
+	}
+
+	/**
+	 * Reads a pose written by putPose().
+	 * @param buffer: Buffer positioned at the pose.
+	 * @return A piece at the pose.
+	 * @throws IllegalArgumentException if the pose names no piece.
+	 */
+	public static Piece getPose(ByteBuffer buffer){
+		int template = buffer.get();
+		int direction = buffer.get();
+		int rotation = buffer.get();
+		int x = buffer.getInt();
+		int y = buffer.getInt();
+		return new Piece(Engine.PIECE_SHAPES, template, direction, rotation, x, y);
+	}
+}
@@ -0,0 +1,233 @@
+package project.net;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import project.engine.Action;
+import project.engine.Engine;
+import project.engine.Piece;
+import project.engine.SpeedCurve;
+
+/**
+ * One connection of a GameServer, and the game played on it.
+ * Reads and writes happen on the selector thread, ticks on the worker pool, and the engine and outgoing buffer are
+ * guarded by the session itself. Encoded messages pile up in the outgoing buffer until the selector thread writes them,
+ * a client too slow to keep it from filling up is dropped.
+ */
+final class Session {
+	// bytes of messages waiting to be written, a few seconds worth at the fastest speed
+	private static final int OUTGOING_CAPACITY = 8192;
+
+	private final GameServer server;
+	private final SocketChannel channel;
+	private final SelectionKey key;
+	private final ByteBuffer incoming = ByteBuffer.allocate(64);
+	private final ByteBuffer outgoing = ByteBuffer.allocate(OUTGOING_CAPACITY);
+	// set while the session waits on the selector thread to write
+	final AtomicBoolean flushQueued = new AtomicBoolean();
+
+	private Engine engine = null;
+	private ScheduledFuture<?> nextTick = null;
+	// bumped by every JOIN, a tick scheduled for an earlier game finds it changed and stops its chain
+	private int generation = 0;
+	// time the next tick is due, ticks are scheduled from it rather than from when the last one ran, to keep the pace
+	private long tickDue;
+	private boolean overflowed = false;
+	private boolean closed = false;
+
+	Session(GameServer server, SocketChannel channel, SelectionKey key){
+		this.server = server;
+		this.channel = channel;
+		this.key = key;
+	}
+
+	/**
+	 * Reads what the client sent and handles every complete message. Selector thread only.
+	 * @return False if the client has left or broke the protocol, and the session should be closed.
+	 * @throws IOException if reading fails.
+	 */
+	boolean read() throws IOException {
+		if(this.channel.read(this.incoming) < 0){
+			return false;
+		}
+		this.incoming.flip();
+		while(this.incoming.hasRemaining()){
+			int length = Protocol.clientMessageLength(this.incoming.get(this.incoming.position()));
+			if(length < 0){
+				return false;
+			}
+			if(this.incoming.remaining() < length){
+				break;
+			}
+			byte type = this.incoming.get();
+			if(type == Protocol.JOIN){
+				if(!this.join(this.incoming.getInt(), this.incoming.getInt())){
+					return false;
+				}
+			}
+			else{
+				Action action = Protocol.action(this.incoming.get());
+				if(action == null){
+					return false;
+				}
+				this.input(action);
+			}
+		}
+		this.incoming.compact();
+		return true;
+	}
+
+	/**
+	 * Starts a new game on the session, replacing the current one.
+	 * @return False if the board size is out of range.
+	 */
+	private boolean join(int gridWidth, int gridHeight){
+		if(gridWidth < Protocol.MIN_SIZE || gridWidth > Protocol.MAX_SIZE || gridHeight < Protocol.MIN_SIZE || gridHeight > Protocol.MAX_SIZE){
+			return false;
+		}
+		synchronized(this){
+			if(this.nextTick != null){
+				this.nextTick.cancel(false);
+			}
+			// a tick already waiting on the session cannot be cancelled, it sees the new generation instead
+			this.generation++;
+			this.engine = new Engine(gridWidth, gridHeight, this.server.nextSeed());
+			if(this.outgoing.remaining() < Protocol.WELCOME_LENGTH + Protocol.FRAME_LENGTH){
+				this.overflowed = true;
+				return false;
+			}
+			Protocol.putWelcome(this.outgoing, this.engine.getSeed(), gridWidth, gridHeight);
+			Protocol.putFrame(this.outgoing, 0, this.engine.getScore(), this.engine.getPiece());
+			this.tickDue = System.nanoTime();
+			this.schedule();
+		}
+		this.server.requestFlush(this);
+		return true;
+	}
+
+	/**
+	 * Applies a player input right away, rather than holding it until the next tick.
+	 */
+	private void input(Action action){
+		synchronized(this){
+			if(this.engine == null || this.engine.isLost()){
+				return;
+			}
+			int result = this.engine.step(action);
+			// a hard drop may land the piece without moving it
+			if(result == 0){
+				return;
+			}
+			this.putFrame(result, null);
+		}
+		this.server.requestFlush(this);
+	}
+
+	/**
+	 * Performs one tick of the game. Worker pool only, scheduled by schedule().
+	 * @param generation: The generation of the game the tick was scheduled for.
+	 */
+	private void tick(int generation){
+		synchronized(this){
+			if(this.closed || this.engine == null || generation != this.generation){
+				return;
+			}
+			Piece piece = this.engine.getPiece();
+			int result = this.engine.step(Action.TICK);
+			this.putFrame(result, (result & Engine.LOCKED) != 0 ? piece : null);
+			if(!this.engine.isLost()){
+				this.schedule();
+			}
+		}
+		this.server.requestFlush(this);
+	}
+
+	/**
+	 * Schedules the next tick on the worker pool, at the speed the game has reached.
+	 * A session falling far behind, e.g. after the pool was busy, skips ahead instead of catching up in a burst.
+	 */
+	private void schedule(){
+		SpeedCurve speedCurve = this.server.getSpeedCurve();
+		long tickLength = speedCurve.tickLength(speedCurve.levelOf(this.engine.getLocks()));
+		long now = System.nanoTime();
+		this.tickDue = Math.max(this.tickDue + tickLength, now - tickLength);
+		ScheduledExecutorService workers = this.server.getWorkers();
+		int generation = this.generation;
+		this.nextTick = workers.schedule(() -> this.tick(generation), this.tickDue - now, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Appends a frame, and the locked piece ahead of it, to the outgoing buffer. Guarded by the session.
+	 * @param result: Flags of the step.
+	 * @param locked: The piece locked by the step, null if none was.
+	 */
+	private void putFrame(int result, Piece locked){
+		int length = Protocol.FRAME_LENGTH + (locked != null ? Protocol.LOCKED_LENGTH : 0);
+		if(this.outgoing.remaining() < length){
+			// the client is not keeping up, the selector thread closes the session on its next flush
+			this.overflowed = true;
+			return;
+		}
+		if(locked != null){
+			Protocol.putLocked(this.outgoing, locked);
+		}
+		Protocol.putFrame(this.outgoing, result, this.engine.getScore(), this.engine.getPiece());
+	}
+
+	/**
+	 * Writes as much of the outgoing buffer as the socket takes. Selector thread only.
+	 * @return False if the session overflowed and should be closed.
+	 * @throws IOException if writing fails.
+	 */
+	boolean write() throws IOException {
+		synchronized(this){
+			if(this.overflowed){
+				return false;
+			}
+			this.outgoing.flip();
+			this.channel.write(this.outgoing);
+			boolean drained = !this.outgoing.hasRemaining();
+			this.outgoing.compact();
+			this.key.interestOps(drained ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+			return true;
+		}
+	}
+
+	/**
+	 * Stops the game and closes the connection.
+	 */
+	void close(){
+		synchronized(this){
+			if(this.closed){
+				return;
+			}
+			this.closed = true;
+			if(this.nextTick != null){
+				this.nextTick.cancel(false);
+			}
+		}
+		this.key.cancel();
+		try{
+			this.channel.close();
+		}
+		catch(IOException e){
+			System.out.println("Could not close session: " + e);
+		}
+	}
+
+	SelectionKey getKey(){
+		return key;
+	}
+
+	/**
+	 * @return True while a game is being played on the session.
+	 */
+	synchronized boolean isPlaying(){
+		return engine != null && !engine.isLost();
+	}
+}
@@ -0,0 +1,203 @@
+package project.net;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.util.Arrays;
+import project.engine.Engine;
+import project.engine.Piece;
+import project.engine.Tile;
+import project.engine.Varint;
+
+/**
+ * Reads a spectator stream, see SpectatorStream for the format, keeping the state of the game it describes.
+ * Nothing can be read of the game before the first snapshot.
+ */
+public class SpectatorReader {
+	private final ReadableByteChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocate(8192);
+	// varints are read through get(), refilling the buffer as it runs dry
+	private final Varint.ByteSource source = this::get;
+
+	private int gridWidth = 0;
+	private int gridHeight = 0;
+	// palette indices of the board, row after row
+	private byte[] tiles = new byte[0];
+	private long tick = 0;
+	private int score = 0;
+	private int flags = 0;
+	private Piece piece = null;
+	private long messages = 0;
+
+	/**
+	 * @param channel: The stream to read.
+	 */
+	public SpectatorReader(ReadableByteChannel channel){
+		if(channel == null){
+			throw new IllegalArgumentException("channel cannot be null.");
+		}
+		this.channel = channel;
+		this.buffer.flip();
+	}
+
+	/**
+	 * Reads one message, blocking until it is complete.
+	 * @return False if the stream ended, rather than a message.
+	 * @throws IOException if reading fails, or the stream is not a spectator stream.
+	 */
+	public boolean next() throws IOException {
+		if(!this.buffer.hasRemaining() && !this.fill()){
+			return false;
+		}
+		byte type = this.get();
+		if(type == SpectatorStream.SNAPSHOT){
+			int gridWidth = (int) Varint.read(this.source);
+			int gridHeight = (int) Varint.read(this.source);
+			if((long) gridWidth * gridHeight > Integer.MAX_VALUE){
+				throw new IOException("Board is too large: " + gridWidth + "x" + gridHeight);
+			}
+			if(gridWidth != this.gridWidth || gridHeight != this.gridHeight){
+				this.gridWidth = gridWidth;
+				this.gridHeight = gridHeight;
+				this.tiles = new byte[gridWidth * gridHeight];
+			}
+			else{
+				Arrays.fill(this.tiles, Tile.EMPTY);
+			}
+			this.tick = Varint.read(this.source);
+			this.score = (int) Varint.read(this.source);
+			this.flags = 0;
+		}
+		else if(type == SpectatorStream.DELTA){
+			if(this.piece == null){
+				throw new IOException("Delta ahead of the first snapshot.");
+			}
+			this.tick = Varint.read(this.source);
+			this.score = (int) Varint.read(this.source);
+			this.flags = this.get();
+		}
+		else{
+			throw new IOException("Unknown message " + type);
+		}
+		int template = this.get();
+		int direction = this.get();
+		int rotation = this.get();
+		int x = Varint.unzigzag(Varint.read(this.source));
+		int y = Varint.unzigzag(Varint.read(this.source));
+		try{
+			this.piece = new Piece(Engine.PIECE_SHAPES, template, direction, rotation, x, y);
+		}
+		catch(IllegalArgumentException e){
+			throw new IOException("Bad piece: " + e.getMessage());
+		}
+		long count = Varint.read(this.source);
+		long index = 0;
+		for(long i = 0; i < count; i++){
+			index += Varint.read(this.source);
+			if(index >= this.tiles.length){
+				throw new IOException("Tile out of board: " + index);
+			}
+			this.tiles[(int) index] = this.get();
+		}
+		this.messages++;
+		return true;
+	}
+
+	/**
+	 * Reads more of the stream into the buffer.
+	 * @return False if the stream has ended.
+	 */
+	private boolean fill() throws IOException {
+		this.buffer.compact();
+		int read = this.channel.read(this.buffer);
+		this.buffer.flip();
+		return read > 0 || this.buffer.hasRemaining();
+	}
+
+	private byte get() throws IOException {
+		while(!this.buffer.hasRemaining()){
+			if(!this.fill()){
+				throw new EOFException("Stream ended within a message.");
+			}
+		}
+		return this.buffer.get();
+	}
+
+	/*
+	 * --------------
+	 * Getter methods
+	 * --------------
+	 */
+
+	/**
+	 * @param x: Column of the tile.
+	 * @param y: Row of the tile.
+	 * @return The palette index of the static tile, Tile.EMPTY if there is none.
+	 */
+	public byte getTile(int x, int y){
+		return tiles[y * gridWidth + x];
+	}
+
+	public int getGridWidth(){
+		return gridWidth;
+	}
+
+	public int getGridHeight(){
+		return gridHeight;
+	}
+
+	public long getTick(){
+		return tick;
+	}
+
+	public int getScore(){
+		return score;
+	}
+
+	/**
+	 * @return Flags of the last tick, as returned by Engine.step(), 0 after a snapshot.
+	 */
+	public int getFlags(){
+		return flags;
+	}
+
+	/**
+	 * @return The falling piece, null before the first snapshot.
+	 */
+	public Piece getPiece(){
+		return piece;
+	}
+
+	/**
+	 * @return The amount of messages read.
+	 */
+	public long getMessages(){
+		return messages;
+	}
+
+	/**
+	 * Reads a stream saved to a file through to its end, and prints the state it ends in.
+	 * @param args: path to the stream file.
+	 */
+	public static void main(String[] args) throws IOException {
+		if(args.length < 1){
+			System.out.println("Usage: SpectatorReader <stream file>");
+			return;
+		}
+		try(FileChannel channel = FileChannel.open(Path.of(args[0]))){
+			SpectatorReader reader = new SpectatorReader(channel);
+			while(reader.next()){
+				// the state is all that is of interest
+			}
+			int occupied = 0;
+			for(byte tile : reader.tiles){
+				occupied += tile != Tile.EMPTY ? 1 : 0;
+			}
+			System.out.printf("%d messages, %dx%d board, tick %d, score %d, %d tiles%n",
+					reader.getMessages(), reader.getGridWidth(), reader.getGridHeight(), reader.getTick(), reader.getScore(), occupied);
+		}
+	}
+}
@@ -0,0 +1,306 @@
+package project.net;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import project.engine.Board;
+import project.engine.Engine;
+import project.engine.Piece;
+import project.engine.PieceShapes;
+import project.engine.Varint;
+
+/**
+ * A spectator stream sends a game to any amount of observers, each reading from a WritableByteChannel (socket or file).
+ * Observers are sent a full snapshot first, and a delta after every tick: the cells that changed, the piece and the score.
+ * Every message is encoded once on the game thread and shared by all observers, which are written to on a writer pool,
+ * so a slow channel holds up neither the game nor the other observers. An observer falling too far behind skips to a
+ * fresh snapshot.
+ *
+ * Binary format, one message after another, see SpectatorReader for the other end:
+ * SNAPSHOT: type byte, width and height (varints), tick and score (varints), pose, tile count (varint),
+ * then every tile as the varint distance from the previous tile index (y * width + x) and a color byte.
+ * DELTA: type byte, tick and score (varints), flags byte, pose, changed cell count (varint), then the cells as in a snapshot.
+ * A pose is the template, direction and rotation bytes followed by the column and row as zigzag varints.
+ * Clearing a ring moves most of the board, so ticks clearing rings are sent as a snapshot instead of a delta.
+ */
+public class SpectatorStream implements AutoCloseable {
+	public static final byte SNAPSHOT = 1;
+	public static final byte DELTA = 2;
+	// messages an observer may have waiting before it is skipped ahead, a few seconds worth
+	private static final int MAX_QUEUED = 256;
+
+	private static final Executor SHARED_WRITERS = Executors.newCachedThreadPool(runnable -> {
+		Thread thread = new Thread(runnable, "spectator-writer");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final Executor writers;
+	// attached from any thread, picked up on the next publish
+	private final Queue<Observer> attached = new ConcurrentLinkedQueue<>();
+	// game thread only
+	private final List<Observer> observers = new ArrayList<>();
+	private ByteBuffer scratch = ByteBuffer.allocate(256);
+	private long[] tiles = new long[64];
+
+	/**
+	 * One channel reading the stream, with the messages it has yet to be written.
+	 */
+	private static final class Observer implements Runnable {
+		final WritableByteChannel channel;
+		final Queue<ByteBuffer> queue = new ConcurrentLinkedQueue<>();
+		final AtomicInteger queued = new AtomicInteger();
+		// set while a writer is draining the queue
+		final AtomicBoolean scheduled = new AtomicBoolean();
+		volatile boolean failed = false;
+		// close the channel once the queue is written
+		volatile boolean closing = false;
+
+		Observer(WritableByteChannel channel){
+			this.channel = channel;
+		}
+
+		void offer(ByteBuffer message, Executor writers){
+			this.queue.add(message.duplicate());
+			this.queued.incrementAndGet();
+			if(this.scheduled.compareAndSet(false, true)){
+				writers.execute(this);
+			}
+		}
+
+		void skip(){
+			while(this.queue.poll() != null){
+				this.queued.decrementAndGet();
+			}
+		}
+
+		@Override
+		public void run(){
+			try{
+				do{
+					for(ByteBuffer message; (message = this.queue.poll()) != null;){
+						this.queued.decrementAndGet();
+						while(message.hasRemaining()){
+							this.channel.write(message);
+						}
+					}
+					this.scheduled.set(false);
+					// a message may have been offered after the queue ran dry, but before the flag was cleared
+				} while(!this.queue.isEmpty() && this.scheduled.compareAndSet(false, true));
+				if(this.closing){
+					this.channel.close();
+				}
+			}
+			catch(IOException e){
+				this.failed = true;
+				this.queue.clear();
+				System.out.println("Spectator left: " + e);
+			}
+		}
+
+		/**
+		 * Closes the channel after the queued messages, on the writer pool.
+		 */
+		void close(Executor writers){
+			this.closing = true;
+			if(this.scheduled.compareAndSet(false, true)){
+				writers.execute(this);
+			}
+		}
+	}
+
+	/**
+	 * Creates a stream written on a shared pool of daemon threads.
+	 */
+	public SpectatorStream(){
+		this(SHARED_WRITERS);
+	}
+
+	/**
+	 * @param writers: Writes the messages to the observers, one observer at a time each.
+	 */
+	public SpectatorStream(Executor writers){
+		if(writers == null){
+			throw new IllegalArgumentException("writers cannot be null.");
+		}
+		this.writers = writers;
+	}
+
+	/**
+	 * Adds an observer, which is sent a snapshot on the next publish. Safe to call from any thread.
+	 * @param channel: The channel to write to, in blocking mode. It is closed along with the stream.
+	 */
+	public void attach(WritableByteChannel channel){
+		if(channel == null){
+			throw new IllegalArgumentException("channel cannot be null.");
+		}
+		this.attached.add(new Observer(channel));
+	}
+
+	/**
+	 * Sends the outcome of a tick to every observer. To be called on the game thread after every tick.
+	 * @param engine: The game.
+	 * @param result: Flags of the tick, as returned by Engine.step().
+	 * @param locked: The piece locked by the tick, null if none was.
+	 */
+	public void publish(Engine engine, int result, Piece locked){
+		this.observers.removeIf(observer -> observer.failed);
+		ByteBuffer snapshot = null;
+		if(!this.observers.isEmpty()){
+			ByteBuffer message;
+			if((result & Engine.CLEARED) != 0){
+				snapshot = this.encodeSnapshot(engine);
+				message = snapshot;
+			}
+			else{
+				message = this.encodeDelta(engine, result, locked);
+			}
+			for(Observer observer : this.observers){
+				if(observer.queued.get() >= MAX_QUEUED){
+					// what is waiting would be outdated by the time it is written anyway
+					observer.skip();
+					snapshot = snapshot != null ? snapshot : this.encodeSnapshot(engine);
+					observer.offer(snapshot, this.writers);
+				}
+				else{
+					observer.offer(message, this.writers);
+				}
+			}
+		}
+		for(Observer observer; (observer = this.attached.poll()) != null;){
+			snapshot = snapshot != null ? snapshot : this.encodeSnapshot(engine);
+			observer.offer(snapshot, this.writers);
+			this.observers.add(observer);
+		}
+	}
+
+	/**
+	 * @return The full state of the game, as a buffer shared by every observer.
+	 */
+	private ByteBuffer encodeSnapshot(Engine engine){
+		Board board = engine.getBoard();
+		int gridWidth = board.getGridWidth();
+		// tiles come in chunk order, and are sorted by index to be delta encoded
+		int[] count = {0};
+		board.forEachTile((x, y, color) -> {
+			if(count[0] == this.tiles.length){
+				this.tiles = Arrays.copyOf(this.tiles, count[0] * 2);
+			}
+			this.tiles[count[0]++] = ((long) y * gridWidth + x) << 8 | (color & 0xFF);
+		});
+		Arrays.sort(this.tiles, 0, count[0]);
+
+		this.scratch.clear();
+		this.ensure(1 + 4 * 10 + 3 + 2 * 5 + 5 + count[0] * 11);
+		this.scratch.put(SNAPSHOT);
+		Varint.put(this.scratch, gridWidth);
+		Varint.put(this.scratch, board.getGridHeight());
+		Varint.put(this.scratch, engine.getTicks());
+		Varint.put(this.scratch, engine.getScore());
+		putPose(this.scratch, engine.getPiece());
+		Varint.put(this.scratch, count[0]);
+		long previous = 0;
+		for(int i = 0; i < count[0]; i++){
+			long index = this.tiles[i] >>> 8;
+			Varint.put(this.scratch, index - previous);
+			this.scratch.put((byte) this.tiles[i]);
+			previous = index;
+		}
+		return this.share();
+	}
+
+	/**
+	 * @return The changes made by a tick, as a buffer shared by every observer.
+	 */
+	private ByteBuffer encodeDelta(Engine engine, int result, Piece locked){
+		this.scratch.clear();
+		this.ensure(1 + 2 * 10 + 1 + 3 + 2 * 5 + 1 + PieceShapes.MAX_SIZE * PieceShapes.MAX_SIZE * 11);
+		this.scratch.put(DELTA);
+		Varint.put(this.scratch, engine.getTicks());
+		Varint.put(this.scratch, engine.getScore());
+		this.scratch.put((byte) result);
+		putPose(this.scratch, engine.getPiece());
+		if(locked == null || (result & Engine.LOCKED) == 0){
+			Varint.put(this.scratch, 0);
+			return this.share();
+		}
+		// the cells a lock changes are the tiles of the locked piece that landed on the board, in ascending order
+		int gridWidth = engine.getGridWidth();
+		int gridHeight = engine.getGridHeight();
+		int mask = locked.getMask();
+		int count = 0;
+		for(int y = 0; y < locked.getSize(); y++){
+			for(int remaining = PieceShapes.row(mask, y); remaining != 0; remaining &= remaining - 1){
+				int x = locked.getXPos() + Integer.numberOfTrailingZeros(remaining);
+				int boardY = locked.getYPos() + y;
+				if(x >= 0 && x < gridWidth && boardY >= 0 && boardY < gridHeight){
+					this.tiles[count++] = (long) boardY * gridWidth + x;
+				}
+			}
+		}
+		Varint.put(this.scratch, count);
+		long previous = 0;
+		for(int i = 0; i < count; i++){
+			Varint.put(this.scratch, this.tiles[i] - previous);
+			this.scratch.put(locked.getColorIndex());
+			previous = this.tiles[i];
+		}
+		return this.share();
+	}
+
+	/**
+	 * Makes room for a message of at most the passed length in the scratch buffer.
+	 */
+	private void ensure(int length){
+		if(this.scratch.capacity() < length){
+			this.scratch = ByteBuffer.allocate(Math.max(length, this.scratch.capacity() * 2));
+		}
+	}
+
+	/**
+	 * @return The message in the scratch buffer, copied to a read-only buffer of its own.
+	 */
+	private ByteBuffer share(){
+		this.scratch.flip();
+		ByteBuffer message = ByteBuffer.allocate(this.scratch.remaining());
+		message.put(this.scratch).flip();
+		return message.asReadOnlyBuffer();
+	}
+
+	static void putPose(ByteBuffer buffer, Piece piece){
+		buffer.put((byte) piece.getTemplate()).put((byte) piece.getDirection()).put((byte) piece.getRotation());
+		Varint.put(buffer, Varint.zigzag(piece.getXPos()));
+		Varint.put(buffer, Varint.zigzag(piece.getYPos()));
+	}
+
+	/**
+	 * @return The amount of observers, not counting those attached since the last publish.
+	 */
+	public int getObserverCount(){
+		return observers.size();
+	}
+
+	/**
+	 * Closes every observer channel once the messages already published are written, without waiting for them.
+	 * Observers attached since the last publish never get to see the game.
+	 */
+	@Override
+	public void close(){
+		for(Observer observer; (observer = this.attached.poll()) != null;){
+			this.observers.add(observer);
+		}
+		for(Observer observer : this.observers){
+			observer.close(this.writers);
+		}
+		this.observers.clear();
+	}
+}
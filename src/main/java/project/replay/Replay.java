@@ -0,0 +1,216 @@
+package project.replay;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import project.engine.Action;
+import project.engine.PieceGenerator;
+import project.engine.Varint;
+
+/**
+ * A replay is the seed and board size of a game together with every input made, stamped with the tick it was made at.
+ * Ticks themselves are not stored, since the engine plays out equally from equal seeds and inputs.
+ *
+ * Binary format, big endian:
+ * magic (int), version (byte), seed (long), piece generator mode (byte), width and height (varints), then one varint per input,
+ * holding the ticks since the previous input shifted left by four and the action code in the low four bits.
+ * An end code closes the inputs, its tick delta leading up to the last tick of the game.
+ * Most inputs take one byte.
+ */
+public final class Replay {
+	public static final int MAGIC = 0x54545250; // "TTRP"
+	public static final byte VERSION = 2;
+	// action codes, fixed by the format, do not reorder
+	private static final Action[] CODES = {Action.UP, Action.DOWN, Action.LEFT, Action.RIGHT, Action.ROTATE, Action.FALL, Action.HARD_DROP};
+	private static final int END = 15;
+	private static final int CODE_BITS = 4;
+
+	private final long seed;
+	private final PieceGenerator.Mode mode;
+	private final int gridWidth;
+	private final int gridHeight;
+	private final long[] ticks;
+	private final Action[] actions;
+	private final long length;
+
+	/**
+	 * @param seed: Seed of the recorded engine.
+	 * @param mode: How the recorded engine dealt its pieces.
+	 * @param gridWidth: Columns making up the board.
+	 * @param gridHeight: Rows making up the board.
+	 * @param ticks: Tick of every input, in ascending order.
+	 * @param actions: Every input, any action but TICK.
+	 * @param length: Ticks played in total, at least the tick of the last input.
+	 */
+	public Replay(long seed, PieceGenerator.Mode mode, int gridWidth, int gridHeight, long[] ticks, Action[] actions, long length){
+		if(mode == null){
+			throw new IllegalArgumentException("mode cannot be null.");
+		}
+		if(ticks.length != actions.length){
+			throw new IllegalArgumentException("ticks and actions have to be of equal length.");
+		}
+		long previous = 0;
+		for(int i = 0; i < ticks.length; i++){
+			if(ticks[i] < previous){
+				throw new IllegalArgumentException("ticks have to be ascending.");
+			}
+			if(code(actions[i]) < 0){
+				throw new IllegalArgumentException(actions[i] + " cannot be recorded.");
+			}
+			previous = ticks[i];
+		}
+		if(length < previous){
+			throw new IllegalArgumentException("length cannot precede the last input.");
+		}
+		this.seed = seed;
+		this.mode = mode;
+		this.gridWidth = gridWidth;
+		this.gridHeight = gridHeight;
+		this.ticks = ticks.clone();
+		this.actions = actions.clone();
+		this.length = length;
+	}
+
+	/**
+	 * @param action: Action to be looked up.
+	 * @return The code of the action, -1 if it is not recorded.
+	 */
+	private static int code(Action action){
+		for(int i = 0; i < CODES.length; i++){
+			if(CODES[i] == action){
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Writes the replay in the binary format. The stream is not closed.
+	 * @param out: Stream to write to.
+	 * @throws IOException If the stream fails.
+	 */
+	public void write(OutputStream out) throws IOException {
+		DataOutputStream data = new DataOutputStream(out);
+		data.writeInt(MAGIC);
+		data.writeByte(VERSION);
+		data.writeLong(this.seed);
+		data.writeByte(this.mode.ordinal());
+		Varint.write(data, this.gridWidth);
+		Varint.write(data, this.gridHeight);
+		long previous = 0;
+		for(int i = 0; i < this.ticks.length; i++){
+			Varint.write(data, (this.ticks[i] - previous) << CODE_BITS | code(this.actions[i]));
+			previous = this.ticks[i];
+		}
+		Varint.write(data, (this.length - previous) << CODE_BITS | END);
+		data.flush();
+	}
+
+	/**
+	 * Reads a replay written by write(). The stream is not closed.
+	 * @param in: Stream to read from.
+	 * @return The replay.
+	 * @throws IOException If the stream fails, or does not hold a replay.
+	 */
+	public static Replay read(InputStream in) throws IOException {
+		DataInputStream data = new DataInputStream(in);
+		if(data.readInt() != MAGIC){
+			throw new IOException("Not a replay.");
+		}
+		byte version = data.readByte();
+		if(version != VERSION){
+			throw new IOException("Unsupported replay version " + version + ".");
+		}
+		long seed = data.readLong();
+		int ordinal = data.readByte();
+		if(ordinal < 0 || ordinal >= PieceGenerator.Mode.values().length){
+			throw new IOException("Unknown generator mode " + ordinal + ".");
+		}
+		PieceGenerator.Mode mode = PieceGenerator.Mode.values()[ordinal];
+		int gridWidth = (int) readVarint(data);
+		int gridHeight = (int) readVarint(data);
+		long[] ticks = new long[64];
+		Action[] actions = new Action[64];
+		int count = 0;
+		long tick = 0;
+		while(true){
+			long value = readVarint(data);
+			int code = (int) (value & ((1 << CODE_BITS) - 1));
+			tick += value >>> CODE_BITS;
+			if(code == END){
+				break;
+			}
+			if(code >= CODES.length){
+				throw new IOException("Unknown action code " + code + ".");
+			}
+			if(count == ticks.length){
+				ticks = Arrays.copyOf(ticks, count * 2);
+				actions = Arrays.copyOf(actions, count * 2);
+			}
+			ticks[count] = tick;
+			actions[count] = CODES[code];
+			count++;
+		}
+		return new Replay(seed, mode, gridWidth, gridHeight, Arrays.copyOf(ticks, count), Arrays.copyOf(actions, count), tick);
+	}
+
+	private static long readVarint(DataInputStream data) throws IOException {
+		try{
+			return Varint.read(data);
+		}catch(EOFException e){
+			throw new EOFException("Replay ends early.");
+		}
+	}
+
+	/*
+	 * ---------------
+	 * Getter methods.
+	 * ---------------
+	 */
+
+	public long getSeed(){
+		return seed;
+	}
+
+	public PieceGenerator.Mode getMode(){
+		return mode;
+	}
+
+	public int getGridWidth(){
+		return gridWidth;
+	}
+
+	public int getGridHeight(){
+		return gridHeight;
+	}
+
+	/**
+	 * @return The amount of inputs recorded.
+	 */
+	public int getInputCount(){
+		return ticks.length;
+	}
+
+	/**
+	 * @param index: Index of the input.
+	 * @return The tick the input was made at, i.e. the amount of ticks applied before it.
+	 */
+	public long getTick(int index){
+		return ticks[index];
+	}
+
+	public Action getAction(int index){
+		return actions[index];
+	}
+
+	/**
+	 * @return The amount of ticks played in total.
+	 */
+	public long getLength(){
+		return length;
+	}
+}
@@ -0,0 +1,173 @@
+package project.replay;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import project.engine.Action;
+import project.engine.Engine;
+
+/**
+ * The replay player plays a replay back on a headless engine, as fast as the engine runs.
+ * While playing forward it keeps a copy of the engine every KEYFRAME_INTERVAL ticks,
+ * so seeking backwards replays from the closest keyframe rather than from tick 0.
+ */
+public class ReplayPlayer {
+	public static final long KEYFRAME_INTERVAL = 1024;
+
+	private final Replay replay;
+	// keyframes at ticks 0, KEYFRAME_INTERVAL, 2 * KEYFRAME_INTERVAL and so on, as far as has been played
+	private final List<Keyframe> keyframes = new ArrayList<>();
+	private Engine engine;
+	// index of the next input to be applied
+	private int input;
+
+	/**
+	 * A copy of the engine at a tick, with the inputs at that tick applied, and where to continue in the replay.
+	 */
+	private record Keyframe(Engine engine, int input) {}
+
+	/**
+	 * Positions the player at tick 0.
+	 * @param replay: The replay to be played.
+	 */
+	public ReplayPlayer(Replay replay){
+		if(replay == null){
+			throw new IllegalArgumentException("replay cannot be null.");
+		}
+		this.replay = replay;
+		this.engine = new Engine(replay.getGridWidth(), replay.getGridHeight(), replay.getSeed(), replay.getMode());
+		this.input = 0;
+		this.applyInputs();
+		this.keyframes.add(new Keyframe(new Engine(this.engine), this.input));
+	}
+
+	/**
+	 * Applies the inputs made at the current tick.
+	 */
+	private void applyInputs(){
+		long tick = this.engine.getTicks();
+		while(this.input < this.replay.getInputCount() && this.replay.getTick(this.input) == tick){
+			this.engine.step(this.replay.getAction(this.input));
+			this.input++;
+		}
+	}
+
+	/**
+	 * Plays forward until the passed tick, the end of the replay or the loss of the game, whichever comes first.
+	 * @param tick: Tick to stop at.
+	 */
+	private void playTo(long tick){
+		long target = Math.min(tick, this.replay.getLength());
+		while(this.engine.getTicks() < target && !this.engine.isLost()){
+			this.engine.step(Action.TICK);
+			this.applyInputs();
+			long ticks = this.engine.getTicks();
+			if(ticks % KEYFRAME_INTERVAL == 0 && ticks / KEYFRAME_INTERVAL == this.keyframes.size()){
+				this.keyframes.add(new Keyframe(new Engine(this.engine), this.input));
+			}
+		}
+	}
+
+	/**
+	 * Moves the player to a tick, having applied every input made up to and including that tick.
+	 * Seeking past the end stops at the end.
+	 * @param tick: The tick to be seeked to.
+	 */
+	public void seek(long tick){
+		if(tick < 0){
+			throw new IllegalArgumentException("tick cannot be negative.");
+		}
+		int closest = (int) Math.min(tick / KEYFRAME_INTERVAL, this.keyframes.size() - 1);
+		// only go back to a keyframe if it is closer than where the player is
+		if(tick < this.engine.getTicks() || closest * KEYFRAME_INTERVAL > this.engine.getTicks()){
+			Keyframe keyframe = this.keyframes.get(closest);
+			this.engine = new Engine(keyframe.engine());
+			this.input = keyframe.input();
+		}
+		this.playTo(tick);
+	}
+
+	/**
+	 * Plays forward a number of ticks.
+	 * @param ticks: The amount of ticks to be played.
+	 */
+	public void advance(long ticks){
+		if(ticks < 0){
+			throw new IllegalArgumentException("ticks cannot be negative.");
+		}
+		this.playTo(this.engine.getTicks() + ticks);
+	}
+
+	/**
+	 * Plays the rest of the replay.
+	 */
+	public void playToEnd(){
+		this.playTo(this.replay.getLength());
+	}
+
+	/**
+	 * @return Returns true if the replay has been played to its end, or the game is lost.
+	 */
+	public boolean isFinished(){
+		return this.engine.isLost() || this.engine.getTicks() >= this.replay.getLength();
+	}
+
+	/*
+	 * ---------------
+	 * Getter methods.
+	 * ---------------
+	 */
+
+	/**
+	 * @return The engine at the current position, not to be stepped outside the player.
+	 */
+	public Engine getEngine(){
+		return engine;
+	}
+
+	public long getTick(){
+		return engine.getTicks();
+	}
+
+	public Replay getReplay(){
+		return replay;
+	}
+
+	/**
+	 * Fast forwards a replay file headlessly and prints the game at the end, or at a passed tick.
+	 * Usage: ReplayPlayer file [tick]
+	 * @param args: Command line arguments.
+	 */
+	public static void main(String[] args){
+		if(args.length < 1){
+			System.out.println("Usage: ReplayPlayer file [tick]");
+			return;
+		}
+		Replay replay;
+		try(InputStream in = new BufferedInputStream(Files.newInputStream(Path.of(args[0])))){
+			replay = Replay.read(in);
+		}
+		catch(IOException e){
+			System.out.println(e);
+			return;
+		}
+		ReplayPlayer player = new ReplayPlayer(replay);
+		long start = System.nanoTime();
+		if(args.length > 1){
+			player.seek(Long.parseLong(args[1]));
+		}
+		else{
+			player.playToEnd();
+		}
+		long elapsed = System.nanoTime() - start;
+		Engine engine = player.getEngine();
+		System.out.printf("seed %d, %dx%d, %d inputs over %d ticks%n",
+				replay.getSeed(), replay.getGridWidth(), replay.getGridHeight(), replay.getInputCount(), replay.getLength());
+		System.out.printf("tick %d: score %d, locks %d, %s (%.1f ms)%n",
+				engine.getTicks(), engine.getScore(), engine.getLocks(), engine.isLost() ? "lost" : "playing", elapsed / 1e6);
+	}
+}
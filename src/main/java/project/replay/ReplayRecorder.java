@@ -0,0 +1,59 @@
+package project.replay;
+
+import java.util.Arrays;
+import project.engine.Action;
+import project.engine.Engine;
+
+/**
+ * The recorder steps an engine on behalf of its player, and keeps every input together with the tick it was made at.
+ * Inputs are kept in growing arrays, so recording a long game costs little more than the game itself.
+ */
+public class ReplayRecorder {
+	private final Engine engine;
+	private long[] ticks = new long[256];
+	private Action[] actions = new Action[256];
+	private int count = 0;
+
+	/**
+	 * @param engine: The engine to be recorded, it should not have been stepped yet.
+	 */
+	public ReplayRecorder(Engine engine){
+		if(engine == null){
+			throw new IllegalArgumentException("engine cannot be null.");
+		}
+		if(engine.getTicks() != 0){
+			throw new IllegalArgumentException("engine has already been stepped.");
+		}
+		this.engine = engine;
+	}
+
+	/**
+	 * Applies an action to the engine, recording it unless it is a tick or the game is over.
+	 * @param action: The action to be applied.
+	 * @return The step result flags, see Engine.step().
+	 */
+	public int step(Action action){
+		if(action != Action.TICK && !this.engine.isLost()){
+			if(this.count == this.ticks.length){
+				this.ticks = Arrays.copyOf(this.ticks, this.count * 2);
+				this.actions = Arrays.copyOf(this.actions, this.count * 2);
+			}
+			this.ticks[this.count] = this.engine.getTicks();
+			this.actions[this.count] = action;
+			this.count++;
+		}
+		return this.engine.step(action);
+	}
+
+	/**
+	 * @return A replay of the game so far.
+	 */
+	public Replay toReplay(){
+		return new Replay(this.engine.getSeed(), this.engine.getGenerator().getMode(), this.engine.getGridWidth(), this.engine.getGridHeight(),
+				Arrays.copyOf(this.ticks, this.count), Arrays.copyOf(this.actions, this.count), this.engine.getTicks());
+	}
+
+	public Engine getEngine(){
+		return engine;
+	}
+}
@@ -0,0 +1,45 @@
+package project.sim;
+
+/**
+ * The outcome of a batch of simulated games.
+ */
+public class BatchResult {
+	private final ScoreDistribution scores;
+	private final long ticks;
+	private final long elapsedNanos;
+
+	/**
+	 * @param scores: Final scores of the games.
+	 * @param ticks: Ticks played across all games.
+	 * @param elapsedNanos: Wall time the batch took.
+	 */
+	public BatchResult(ScoreDistribution scores, long ticks, long elapsedNanos){
+		this.scores = scores;
+		this.ticks = ticks;
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	public ScoreDistribution getScores(){
+		return scores;
+	}
+
+	public long getTicks(){
+		return ticks;
+	}
+
+	public long getElapsedNanos(){
+		return elapsedNanos;
+	}
+
+	/**
+	 * @return Ticks played per second of wall time.
+	 */
+	public double getTicksPerSecond(){
+		return elapsedNanos == 0 ? 0 : ticks * 1e9 / elapsedNanos;
+	}
+
+	@Override
+	public String toString(){
+		return String.format("%s%nticks: %d, %.0f ticks/s, %.2f s", scores, ticks, getTicksPerSecond(), elapsedNanos / 1e9);
+	}
+}
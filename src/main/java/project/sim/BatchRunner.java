@@ -0,0 +1,176 @@
+package project.sim;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+import project.engine.Action;
+import project.engine.Engine;
+import project.engine.Rng;
+
+/**
+ * The batch runner plays many headless games at once on a fork-join pool.
+ * Game i of a batch is seeded from the batch seed and i, so a batch plays out the same however it is split across threads.
+ * Every task tallies its own scores, and the tallies are merged as tasks complete, so no mutable state is shared
+ * beyond the sink scores may be handed to.
+ */
+public class BatchRunner {
+	// inputs a strategy may send between two ticks before a tick is forced
+	public static final int MAX_INPUTS_PER_TICK = 16;
+	// games a task plays itself instead of splitting further
+	private static final int GAMES_PER_TASK = 32;
+
+	private final int gridWidth;
+	private final int gridHeight;
+	private final long maxTicks;
+	private final Supplier<? extends Strategy> strategies;
+	private final ForkJoinPool pool;
+
+	/**
+	 * Creates a runner on the common pool, which has one thread per core.
+	 * @param gridWidth: Columns making up the boards.
+	 * @param gridHeight: Rows making up the boards.
+	 * @param maxTicks: Ticks after which a game is stopped and scored, even if it isn't lost.
+	 * @param strategies: Creates the strategy of every game.
+	 */
+	public BatchRunner(int gridWidth, int gridHeight, long maxTicks, Supplier<? extends Strategy> strategies){
+		this(gridWidth, gridHeight, maxTicks, strategies, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * @param gridWidth: Columns making up the boards.
+	 * @param gridHeight: Rows making up the boards.
+	 * @param maxTicks: Ticks after which a game is stopped and scored, even if it isn't lost.
+	 * @param strategies: Creates the strategy of every game.
+	 * @param pool: The pool the games are played on.
+	 */
+	public BatchRunner(int gridWidth, int gridHeight, long maxTicks, Supplier<? extends Strategy> strategies, ForkJoinPool pool){
+		if(maxTicks <= 0){
+			throw new IllegalArgumentException("maxTicks has to be positive.");
+		}
+		if(strategies == null || pool == null){
+			throw new IllegalArgumentException("strategies and pool cannot be null.");
+		}
+		this.gridWidth = gridWidth;
+		this.gridHeight = gridHeight;
+		this.maxTicks = maxTicks;
+		this.strategies = strategies;
+		this.pool = pool;
+	}
+
+	/**
+	 * Plays a batch of games and collects their scores.
+	 * @param games: The amount of games to be played.
+	 * @param seed: Seed of the batch.
+	 * @return Score distribution and tick count of the batch.
+	 */
+	public BatchResult run(int games, long seed){
+		return this.run(games, seed, score -> {});
+	}
+
+	/**
+	 * Plays a batch of games and collects their scores, handing every score to a sink as its game ends.
+	 * @param games: The amount of games to be played.
+	 * @param seed: Seed of the batch.
+	 * @param sink: Takes the score of every game, called from the threads of the pool at once, e.g. a Leaderboard.
+	 * @return Score distribution and tick count of the batch.
+	 */
+	public BatchResult run(int games, long seed, IntConsumer sink){
+		if(games < 0){
+			throw new IllegalArgumentException("games cannot be negative.");
+		}
+		if(sink == null){
+			throw new IllegalArgumentException("sink cannot be null.");
+		}
+		long start = System.nanoTime();
+		Tally tally = this.pool.invoke(new GamesTask(0, games, seed, sink));
+		return new BatchResult(tally.scores, tally.ticks, System.nanoTime() - start);
+	}
+
+	/**
+	 * Plays a game with a strategy until it is lost or runs out of ticks.
+	 * @param engine: The game to be played.
+	 * @param strategy: The player.
+	 * @param maxTicks: Ticks after which the game is stopped.
+	 */
+	public static void play(Engine engine, Strategy strategy, long maxTicks){
+		int inputs = 0;
+		while(!engine.isLost() && engine.getTicks() < maxTicks){
+			Action action = inputs < MAX_INPUTS_PER_TICK ? strategy.act(engine) : Action.TICK;
+			if(action == null || action == Action.TICK){
+				action = Action.TICK;
+				inputs = 0;
+			}else{
+				inputs++;
+			}
+			engine.step(action);
+		}
+	}
+
+	/**
+	 * Scores and ticks of a share of the batch.
+	 */
+	private static class Tally {
+		final ScoreDistribution scores = new ScoreDistribution();
+		long ticks = 0;
+
+		Tally merge(Tally other){
+			this.scores.merge(other.scores);
+			this.ticks += other.ticks;
+			return this;
+		}
+	}
+
+	/**
+	 * Plays games [from, to) of the batch, splitting in halves until the share is small.
+	 */
+	@SuppressWarnings("serial") // tasks are never serialized
+	private class GamesTask extends RecursiveTask<Tally> {
+		private final int from;
+		private final int to;
+		private final long seed;
+		private final IntConsumer sink;
+
+		GamesTask(int from, int to, long seed, IntConsumer sink){
+			this.from = from;
+			this.to = to;
+			this.seed = seed;
+			this.sink = sink;
+		}
+
+		@Override
+		protected Tally compute(){
+			if(this.to - this.from > GAMES_PER_TASK){
+				int middle = (this.from + this.to) >>> 1;
+				GamesTask left = new GamesTask(this.from, middle, this.seed, this.sink);
+				left.fork();
+				Tally right = new GamesTask(middle, this.to, this.seed, this.sink).compute();
+				return left.join().merge(right);
+			}
+			Tally tally = new Tally();
+			for(int game = this.from; game < this.to; game++){
+				Engine engine = new Engine(gridWidth, gridHeight, Rng.mix(this.seed, game));
+				play(engine, strategies.get(), maxTicks);
+				int score = engine.getScore();
+				tally.scores.add(score);
+				this.sink.accept(score);
+				tally.ticks += engine.getTicks();
+			}
+			return tally;
+		}
+	}
+
+	/**
+	 * Runs a batch of games from the command line, idle unless the placement strategy is asked for.
+	 * @param args: [games] [board size] [seed] [idle|placement]
+	 */
+	public static void main(String[] args){
+		int games = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+		int size = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+		long seed = args.length > 2 ? Long.parseLong(args[2]) : 0;
+		boolean placement = args.length > 3 && args[3].equals("placement");
+		Supplier<Strategy> strategies = placement ? PlacementStrategy::new : () -> Strategy.IDLE;
+		BatchRunner runner = new BatchRunner(size, size, Long.MAX_VALUE, strategies);
+		System.out.println(runner.run(games, seed));
+	}
+}
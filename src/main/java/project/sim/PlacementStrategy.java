@@ -0,0 +1,282 @@
+package project.sim;
+
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.IntStream;
+import project.engine.Action;
+import project.engine.Board;
+import project.engine.Engine;
+import project.engine.Piece;
+import project.engine.PieceShapes;
+import project.engine.Tile;
+
+/**
+ * The placement strategy plays by itself. When a piece spawns it tries every rotation and sideways offset the piece
+ * can reach from where it is, drops each straight down its fall direction, and steers towards the best landing.
+ * Landings are scored on the tiles around the piece only, preferring tight fits close to the center,
+ * since pieces fall towards the center from every edge and lock outside the inner square loses the game.
+ * Large searches are spread across the common pool, unless the strategy already runs on a pool (e.g. in a batch).
+ */
+public class PlacementStrategy implements Strategy {
+	// candidate landings from which the search runs in parallel
+	public static final int PARALLEL_CANDIDATES = 512;
+	// actions spent steering one piece before it is left to fall as it is
+	private static final int MAX_STEERING = 64;
+
+	// heuristic weights
+	private static final double CONTACT_WEIGHT = 3.0;
+	private static final double RING_WEIGHT = 1.0;
+	private static final double EDGE_WEIGHT = 2.0;
+	private static final double HOLE_WEIGHT = 8.0;
+	// neighbours of a tile
+	private static final int[] SIDE_X = {1, -1, 0, 0};
+	private static final int[] SIDE_Y = {0, 0, 1, -1};
+
+	private final boolean drop;
+
+	// the piece the current plan was made for
+	private Piece planned;
+	private boolean hasTarget;
+	private int targetRotation;
+	private int targetLateral;
+	private int steering;
+
+	/**
+	 * Creates a strategy dropping its pieces as soon as they are in place.
+	 */
+	public PlacementStrategy(){
+		this(true);
+	}
+
+	/**
+	 * @param drop: Set to true to drop pieces once they are in place, false to leave them to the ticks.
+	 */
+	public PlacementStrategy(boolean drop){
+		this.drop = drop;
+	}
+
+	@Override
+	public Action act(Engine engine){
+		Piece piece = engine.getPiece();
+		if(piece != this.planned){
+			this.planned = piece;
+			this.steering = 0;
+			this.plan(engine);
+		}
+		if(this.hasTarget && this.steering < MAX_STEERING){
+			Action action = this.steer(piece);
+			if(action != null){
+				this.steering++;
+				return action;
+			}
+		}
+		return this.drop && engine.canFall() ? Action.HARD_DROP : Action.TICK;
+	}
+
+	/**
+	 * @param piece: The current piece.
+	 * @return The next action bringing the piece to the target, null if it is there.
+	 */
+	private Action steer(Piece piece){
+		if(piece.getRotation() != this.targetRotation){
+			return Action.ROTATE;
+		}
+		boolean vertical = piece.getFallX() == 0;
+		int lateral = vertical ? piece.getXPos() : piece.getYPos();
+		if(lateral < this.targetLateral){
+			return vertical ? Action.RIGHT : Action.DOWN;
+		}
+		if(lateral > this.targetLateral){
+			return vertical ? Action.LEFT : Action.UP;
+		}
+		return null;
+	}
+
+	/**
+	 * Searches the landings of the current piece, and targets the best one.
+	 * Only rotations reachable in place, and offsets reachable by sliding at the current depth, are considered,
+	 * so the engine will follow the plan move by move.
+	 * @param engine: The game being played.
+	 */
+	private void plan(Engine engine){
+		Board board = engine.getBoard();
+		Piece piece = engine.getPiece();
+		PieceShapes shapes = Engine.PIECE_SHAPES;
+		int template = piece.getTemplate();
+		boolean vertical = piece.getFallX() == 0;
+		int x = piece.getXPos();
+		int y = piece.getYPos();
+
+		int[] rotations = new int[PieceShapes.ROTATIONS];
+		int[] lows = new int[PieceShapes.ROTATIONS];
+		int[] counts = new int[PieceShapes.ROTATIONS];
+		int reachable = 0;
+		int candidates = 0;
+		for(int turns = 0; turns < PieceShapes.ROTATIONS; turns++){
+			int rotation = (piece.getRotation() + turns) % PieceShapes.ROTATIONS;
+			if(turns > 0 && !fits(board, shapes, template, rotation, x, y)){
+				break;
+			}
+			int low = vertical ? x : y;
+			int high = low;
+			while(vertical ? fits(board, shapes, template, rotation, low - 1, y) : fits(board, shapes, template, rotation, x, low - 1)){
+				low--;
+			}
+			while(vertical ? fits(board, shapes, template, rotation, high + 1, y) : fits(board, shapes, template, rotation, x, high + 1)){
+				high++;
+			}
+			rotations[reachable] = rotation;
+			lows[reachable] = low;
+			counts[reachable] = high - low + 1;
+			candidates += counts[reachable];
+			reachable++;
+		}
+
+		// flatten the candidates, rotation after rotation
+		int[] candidateRotations = new int[candidates];
+		int[] candidateX = new int[candidates];
+		int[] candidateY = new int[candidates];
+		int index = 0;
+		for(int i = 0; i < reachable; i++){
+			for(int offset = 0; offset < counts[i]; offset++, index++){
+				candidateRotations[index] = rotations[i];
+				candidateX[index] = vertical ? lows[i] + offset : x;
+				candidateY[index] = vertical ? y : lows[i] + offset;
+			}
+		}
+
+		int direction = piece.getDirection();
+		double[] scores = new double[candidates];
+		if(candidates >= PARALLEL_CANDIDATES && !ForkJoinTask.inForkJoinPool()){
+			IntStream.range(0, candidates).parallel().forEach(i ->
+					scores[i] = evaluate(board, shapes, template, candidateRotations[i], candidateX[i], candidateY[i], direction));
+		}else{
+			for(int i = 0; i < candidates; i++){
+				scores[i] = evaluate(board, shapes, template, candidateRotations[i], candidateX[i], candidateY[i], direction);
+			}
+		}
+
+		// the first of equally good landings wins, so plans do not depend on how the search was split
+		int best = -1;
+		for(int i = 0; i < candidates; i++){
+			if(scores[i] != Double.NEGATIVE_INFINITY && (best < 0 || scores[i] > scores[best])){
+				best = i;
+			}
+		}
+		this.hasTarget = best >= 0;
+		if(this.hasTarget){
+			this.targetRotation = candidateRotations[best];
+			this.targetLateral = vertical ? candidateX[best] : candidateY[best];
+		}
+	}
+
+	/**
+	 * @return Returns true if the piece would be on the board and clear of static tiles at the passed pose.
+	 */
+	private static boolean fits(Board board, PieceShapes shapes, int template, int rotation, int x, int y){
+		return onBoard(board, shapes, template, rotation, x, y) && !board.probe(shapes.getMask(template, rotation), x, y);
+	}
+
+	/**
+	 * @return Returns true if every tile of the piece would be on the board at the passed pose.
+	 */
+	private static boolean onBoard(Board board, PieceShapes shapes, int template, int rotation, int x, int y){
+		return board.contains(
+				x + shapes.getMinX(template, rotation),
+				y + shapes.getMinY(template, rotation),
+				x + shapes.getMaxX(template, rotation),
+				y + shapes.getMaxY(template, rotation));
+	}
+
+	/**
+	 * Drops the piece from the passed pose and scores where it lands.
+	 * @return The score of the landing, higher is better, negative infinity if it loses the game.
+	 */
+	private static double evaluate(Board board, PieceShapes shapes, int template, int rotation, int x, int y, int direction){
+		int fallX = Piece.fallX(direction);
+		int fallY = Piece.fallY(direction);
+		int gridWidth = board.getGridWidth();
+		int gridHeight = board.getGridHeight();
+		int centerX = gridWidth / 2;
+		int centerY = gridHeight / 2;
+		// pieces only lock inside the inner square, so landing across its sides loses whatever lies below
+		boolean across = fallX == 0
+				? Piece.outOfBounds(x + shapes.getMinX(template, rotation), centerY, x + shapes.getMaxX(template, rotation), centerY, gridWidth, gridHeight)
+				: Piece.outOfBounds(centerX, y + shapes.getMinY(template, rotation), centerX, y + shapes.getMaxY(template, rotation), gridWidth, gridHeight);
+		if(across){
+			return Double.NEGATIVE_INFINITY;
+		}
+		int mask = shapes.getMask(template, rotation);
+		int distance = board.landingDistance(mask, x, y, direction);
+		x += fallX * distance;
+		y += fallY * distance;
+		// a piece missing everything falls off the board
+		if(!onBoard(board, shapes, template, rotation, x + fallX, y + fallY)){
+			return Double.NEGATIVE_INFINITY;
+		}
+		if(Piece.outOfBounds(
+				x + shapes.getMinX(template, rotation),
+				y + shapes.getMinY(template, rotation),
+				x + shapes.getMaxX(template, rotation),
+				y + shapes.getMaxY(template, rotation),
+				gridWidth, gridHeight)){
+			return Double.NEGATIVE_INFINITY;
+		}
+
+		int contacts = 0;
+		int holes = 0;
+		int rings = 0;
+		int maxRing = 0;
+		for(int remaining = mask; remaining != 0; remaining &= remaining - 1){
+			int bit = Integer.numberOfTrailingZeros(remaining);
+			int tileX = x + bit % PieceShapes.MAX_SIZE;
+			int tileY = y + bit / PieceShapes.MAX_SIZE;
+			int ring = Math.max(Math.abs(tileX - centerX), Math.abs(tileY - centerY));
+			rings += ring;
+			maxRing = Math.max(maxRing, ring);
+			for(int side = 0; side < 4; side++){
+				int neighbourX = tileX + SIDE_X[side];
+				int neighbourY = tileY + SIDE_Y[side];
+				if(occupied(board, neighbourX, neighbourY)){
+					contacts++;
+				}else if(!covers(mask, x, y, neighbourX, neighbourY) && enclosed(board, mask, x, y, neighbourX, neighbourY)){
+					holes++;
+				}
+			}
+		}
+		return CONTACT_WEIGHT * contacts - RING_WEIGHT * rings - EDGE_WEIGHT * maxRing - HOLE_WEIGHT * holes;
+	}
+
+	/**
+	 * @return Returns true if the tile is on the board and holds a static tile.
+	 */
+	private static boolean occupied(Board board, int x, int y){
+		return x >= 0 && y >= 0 && x < board.getGridWidth() && y < board.getGridHeight() && board.getTile(x, y) != Tile.EMPTY;
+	}
+
+	/**
+	 * @return Returns true if the piece mask at (pieceX, pieceY) covers the tile.
+	 */
+	private static boolean covers(int mask, int pieceX, int pieceY, int x, int y){
+		int dx = x - pieceX;
+		int dy = y - pieceY;
+		return dx >= 0 && dy >= 0 && dx < PieceShapes.MAX_SIZE && dy < PieceShapes.MAX_SIZE
+				&& (mask & 1 << (dy * PieceShapes.MAX_SIZE + dx)) != 0;
+	}
+
+	/**
+	 * @return Returns true if an empty tile on the board is walled in on all sides by static tiles or the piece.
+	 */
+	private static boolean enclosed(Board board, int mask, int pieceX, int pieceY, int x, int y){
+		if(x < 0 || y < 0 || x >= board.getGridWidth() || y >= board.getGridHeight()){
+			return false;
+		}
+		for(int side = 0; side < 4; side++){
+			int neighbourX = x + SIDE_X[side];
+			int neighbourY = y + SIDE_Y[side];
+			if(!occupied(board, neighbourX, neighbourY) && !covers(mask, pieceX, pieceY, neighbourX, neighbourY)){
+				return false;
+			}
+		}
+		return true;
+	}
+}
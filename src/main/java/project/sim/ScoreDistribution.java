@@ -0,0 +1,112 @@
+package project.sim;
+
+import java.util.Arrays;
+
+/**
+ * A score distribution collects the final scores of many games as a histogram.
+ * Distributions collected separately can be merged, so every worker keeps its own and nothing is shared.
+ */
+public class ScoreDistribution {
+	private long[] histogram = new long[64];
+	private long count = 0;
+	private long sum = 0;
+	private double sumOfSquares = 0;
+	private int min = Integer.MAX_VALUE;
+	private int max = Integer.MIN_VALUE;
+
+	/**
+	 * @param score: A final score, cannot be negative.
+	 */
+	public void add(int score){
+		if(score < 0){
+			throw new IllegalArgumentException("Score cannot be negative.");
+		}
+		if(score >= histogram.length){
+			histogram = Arrays.copyOf(histogram, Math.max(histogram.length * 2, score + 1));
+		}
+		histogram[score]++;
+		count++;
+		sum += score;
+		sumOfSquares += (double) score * score;
+		min = Math.min(min, score);
+		max = Math.max(max, score);
+	}
+
+	/**
+	 * Adds all scores of another distribution to this one.
+	 * @param other: The distribution to be merged in.
+	 */
+	public void merge(ScoreDistribution other){
+		if(other.histogram.length > histogram.length){
+			histogram = Arrays.copyOf(histogram, other.histogram.length);
+		}
+		for(int score = 0; score < other.histogram.length; score++){
+			histogram[score] += other.histogram[score];
+		}
+		count += other.count;
+		sum += other.sum;
+		sumOfSquares += other.sumOfSquares;
+		min = Math.min(min, other.min);
+		max = Math.max(max, other.max);
+	}
+
+	/**
+	 * @param percentile: Between 0 and 100.
+	 * @return The lowest score at or above the given share of games, 0 if there are none.
+	 */
+	public int getPercentile(double percentile){
+		if(percentile < 0 || percentile > 100){
+			throw new IllegalArgumentException("percentile has to be between 0 and 100.");
+		}
+		if(count == 0){
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+		long seen = 0;
+		for(int score = 0; score < histogram.length; score++){
+			seen += histogram[score];
+			if(seen >= rank){
+				return score;
+			}
+		}
+		return max;
+	}
+
+	public long getCount(){
+		return count;
+	}
+
+	public int getMin(){
+		return count == 0 ? 0 : min;
+	}
+
+	public int getMax(){
+		return count == 0 ? 0 : max;
+	}
+
+	public double getMean(){
+		return count == 0 ? 0 : (double) sum / count;
+	}
+
+	public double getStandardDeviation(){
+		if(count == 0){
+			return 0;
+		}
+		double mean = getMean();
+		return Math.sqrt(Math.max(0, sumOfSquares / count - mean * mean));
+	}
+
+	/**
+	 * @param score: A score.
+	 * @return The amount of games ending with the given score.
+	 */
+	public long getFrequency(int score){
+		return score >= 0 && score < histogram.length ? histogram[score] : 0;
+	}
+
+	@Override
+	public String toString(){
+		return String.format("games: %d, mean: %.2f, sd: %.2f, min: %d, p50: %d, p90: %d, p99: %d, max: %d",
+				count, getMean(), getStandardDeviation(), getMin(), getPercentile(50), getPercentile(90), getPercentile(99), getMax());
+	}
+}
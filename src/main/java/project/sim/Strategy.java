@@ -0,0 +1,22 @@
+package project.sim;
+
+import project.engine.Action;
+import project.engine.Engine;
+
+/**
+ * A strategy decides what a simulated player does.
+ * It is asked for one action at a time, and answers TICK to let the game move on.
+ * Every simulated game gets its own strategy instance, so strategies are free to keep state.
+ */
+public interface Strategy {
+	/**
+	 * A strategy that never touches the controls.
+	 */
+	Strategy IDLE = engine -> Action.TICK;
+
+	/**
+	 * @param engine: The game being played, not to be stepped by the strategy itself.
+	 * @return The next action to be applied.
+	 */
+	Action act(Engine engine);
+}
@@ -0,0 +1,189 @@
+package project;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.Test;
+
+public class LeaderboardTest {
+    /**
+     * A store keeping its scores in memory, recording every write.
+     */
+    private static final class MemoryStore implements FileIO {
+        final List<Integer> loaded;
+        final List<Integer> written = new ArrayList<>();
+
+        MemoryStore(Integer... loaded){
+            this.loaded = List.of(loaded);
+        }
+
+        @Override
+        public List<Integer> read() {
+            return this.loaded;
+        }
+
+        @Override
+        public void write(int score) {
+            this.written.add(score);
+        }
+    }
+
+    private static Leaderboard board(int... scores){
+        Leaderboard board = new Leaderboard(Leaderboard.DEFAULT_CAPACITY, null, 1);
+        for(int score : scores){
+            board.submit("p", score);
+        }
+        return board;
+    }
+
+    /**
+     * The last exactly counted score and the first bucketed one are told apart, the first bucket holds two scores.
+     */
+    @Test
+    public void ranksAroundExactScores(){
+        Leaderboard board = board(Leaderboard.EXACT_SCORES - 1, Leaderboard.EXACT_SCORES);
+        assertEquals(1, board.rank(Leaderboard.EXACT_SCORES + 2));
+        assertEquals(2, board.rank(Leaderboard.EXACT_SCORES + 1));
+        assertEquals(2, board.rank(Leaderboard.EXACT_SCORES));
+        assertEquals(3, board.rank(Leaderboard.EXACT_SCORES - 1));
+        assertEquals(3, board.rank(Leaderboard.EXACT_SCORES - 2));
+    }
+
+    /**
+     * The last bucket of an octave and the first of the next are told apart.
+     */
+    @Test
+    public void ranksAroundOctaves(){
+        Leaderboard board = board(4095);
+        assertEquals(1, board.rank(4096));
+        assertEquals(2, board.rank(4095));
+        // 4094 shares the bucket of 4095, so places behind it
+        assertEquals(2, board.rank(4094));
+        board.submit("p", 4096);
+        assertEquals(2, board.rank(4097));
+        assertEquals(3, board.rank(4095));
+    }
+
+    @Test
+    public void ranksHighestScore(){
+        Leaderboard board = board(Integer.MAX_VALUE, 0);
+        assertEquals(2, board.rank(Integer.MAX_VALUE));
+        assertEquals(2, board.rank(Integer.MAX_VALUE - 1));
+        assertEquals(2, board.rank(Integer.MAX_VALUE / 2 + 1));
+        assertEquals(2, board.rank(1));
+        assertEquals(3, board.rank(0));
+        assertEquals(Integer.MAX_VALUE, board.getTop().get(0).score());
+    }
+
+    @Test
+    public void rejectsNegativeScores(){
+        Leaderboard board = board();
+        assertThrows(IllegalArgumentException.class, () -> board.submit("p", -1));
+        assertThrows(IllegalArgumentException.class, () -> board.rank(-1));
+        assertEquals(0, board.getCount());
+    }
+
+    /**
+     * Equal scores go to the earlier games, and a score places behind every equal one.
+     */
+    @Test
+    public void ranksTiesByTime(){
+        Leaderboard board = board();
+        ScoreRecord later = new ScoreRecord("b", 2, 500);
+        ScoreRecord earlier = new ScoreRecord("a", 1, 500);
+        ScoreRecord lower = new ScoreRecord("c", 0, 400);
+        board.submit(later);
+        board.submit(lower);
+        board.submit(earlier);
+        assertEquals(List.of(earlier, later, lower), board.getTop());
+        assertEquals(3, board.rank(500));
+        assertEquals(3, board.rank(450));
+        assertEquals(4, board.rank(400));
+        assertEquals(1, board.rank(501));
+    }
+
+    @Test
+    public void keepsBestRecordsOfAllStripes() throws InterruptedException {
+        int threads = 8;
+        int perThread = 5000;
+        Leaderboard board = new Leaderboard(Leaderboard.DEFAULT_CAPACITY, null, threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for(int t = 0; t < threads; t++){
+            int first = t * perThread;
+            Thread worker = new Thread(() -> {
+                try{
+                    start.await();
+                }catch(InterruptedException e){
+                    return;
+                }
+                for(int i = 0; i < perThread; i++){
+                    board.submit("p", first + i);
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        for(Thread worker : workers){
+            worker.join();
+        }
+        int total = threads * perThread;
+        assertEquals(total, board.getCount());
+        List<Integer> expected = new ArrayList<>();
+        for(int i = 1; i <= Leaderboard.DEFAULT_CAPACITY; i++){
+            expected.add(total - i);
+        }
+        assertEquals(expected, board.read());
+        assertEquals(total + 1, board.rank(0));
+        assertEquals(Leaderboard.EXACT_SCORES + 1, board.rank(total - Leaderboard.EXACT_SCORES));
+    }
+
+    /**
+     * The merged records are kept until a record enters the heap of a stripe.
+     */
+    @Test
+    public void cachesMergedTop(){
+        Leaderboard board = new Leaderboard(2, null, 4);
+        board.submit("p", 10);
+        board.submit("p", 20);
+        List<ScoreRecord> top = board.getTop();
+        assertSame(top, board.getTop());
+        // not good enough to make the board
+        board.submit("p", 5);
+        assertSame(top, board.getTop());
+        board.submit("p", 30);
+        List<ScoreRecord> changed = board.getTop();
+        assertNotSame(top, changed);
+        assertEquals(List.of(30, 20), board.read());
+        assertSame(changed, board.getTop());
+    }
+
+    /**
+     * Only records which made the board since the last save are written, loaded scores never are.
+     */
+    @Test
+    public void savesRecordsStillOnTheBoard(){
+        MemoryStore store = new MemoryStore(100, 0);
+        Leaderboard board = new Leaderboard(2, store, 1);
+        assertEquals(1, board.getCount());
+        board.submit(new ScoreRecord("a", 1, 50));
+        board.submit(new ScoreRecord("b", 2, 200));
+        // pushes off the loaded score, 50 was pushed off already and is not written
+        board.submit(new ScoreRecord("c", 3, 150));
+        board.save();
+        assertEquals(List.of(150, 200), store.written);
+        board.save();
+        assertEquals(List.of(150, 200), store.written);
+        board.submit(new ScoreRecord("d", 4, 300));
+        board.submit(new ScoreRecord("e", 5, 10));
+        board.save();
+        assertEquals(List.of(150, 200, 300), store.written);
+        assertEquals(List.of(300, 200), board.read());
+    }
+}
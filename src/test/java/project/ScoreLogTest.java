@@ -0,0 +1,147 @@
+package project;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ScoreLogTest {
+    // header, then records of length, checksum, timestamp, score, name length and a one letter name
+    private static final int HEADER_SIZE = Integer.BYTES + 1;
+    private static final int RECORD_SIZE = 2 * Integer.BYTES + Long.BYTES + Integer.BYTES + Short.BYTES + 1;
+
+    @TempDir
+    Path directory;
+
+    private static List<ScoreRecord> records(int count){
+        List<ScoreRecord> records = new ArrayList<>();
+        for(int i = 0; i < count; i++){
+            records.add(new ScoreRecord("p", i, 100 + i));
+        }
+        return records;
+    }
+
+    private static void write(Path path, List<ScoreRecord> records) throws IOException {
+        try(ScoreLog log = new ScoreLog(path)){
+            for(ScoreRecord record : records){
+                log.append(record);
+            }
+        }
+    }
+
+    private static List<ScoreRecord> best(List<ScoreRecord> records){
+        List<ScoreRecord> best = new ArrayList<>(records);
+        best.sort(ScoreRecord.RANKING);
+        return best.subList(0, Math.min(best.size(), ScoreLog.DEFAULT_CAPACITY));
+    }
+
+    @Test
+    public void loadsWrittenRecords() throws IOException {
+        Path path = this.directory.resolve("scores.log");
+        List<ScoreRecord> records = records(15);
+        write(path, records);
+        assertEquals(HEADER_SIZE + 15 * RECORD_SIZE, Files.size(path));
+        try(ScoreLog log = new ScoreLog(path)){
+            assertEquals(best(records), log.getTop());
+        }
+    }
+
+    /**
+     * A record cut short is dropped and cut off the file, and records appended later follow the last whole one.
+     */
+    @Test
+    public void truncatesTornRecord() throws IOException {
+        Path path = this.directory.resolve("scores.log");
+        List<ScoreRecord> records = records(3);
+        write(path, records);
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 3));
+        ScoreRecord later = new ScoreRecord("p", 10, 50);
+        try(ScoreLog log = new ScoreLog(path)){
+            assertEquals(best(records.subList(0, 2)), log.getTop());
+            assertEquals(HEADER_SIZE + 2 * RECORD_SIZE, Files.size(path));
+            log.append(later);
+        }
+        try(ScoreLog log = new ScoreLog(path)){
+            assertEquals(List.of(records.get(1), records.get(0), later), log.getTop());
+        }
+    }
+
+    /**
+     * A record failing its checksum ends the log, the records behind it included.
+     */
+    @Test
+    public void rejectsBadChecksum() throws IOException {
+        Path path = this.directory.resolve("scores.log");
+        List<ScoreRecord> records = records(4);
+        write(path, records);
+        byte[] bytes = Files.readAllBytes(path);
+        // the score of the second record
+        bytes[HEADER_SIZE + RECORD_SIZE + 2 * Integer.BYTES + Long.BYTES + Integer.BYTES - 1] ^= 1;
+        Files.write(path, bytes);
+        try(ScoreLog log = new ScoreLog(path)){
+            assertEquals(records.subList(0, 1), log.getTop());
+        }
+        assertEquals(HEADER_SIZE + RECORD_SIZE, Files.size(path));
+    }
+
+    @Test
+    public void movesAsideOtherFiles() throws IOException {
+        Path path = this.directory.resolve("scores.log");
+        byte[] other = "not a score log".getBytes();
+        Files.write(path, other);
+        ScoreRecord record = new ScoreRecord("p", 0, 100);
+        try(ScoreLog log = new ScoreLog(path)){
+            assertEquals(List.of(), log.getTop());
+            log.append(record);
+        }
+        assertArrayEquals(other, Files.readAllBytes(this.directory.resolve("scores.log.corrupt")));
+        try(ScoreLog log = new ScoreLog(path)){
+            assertEquals(List.of(record), log.getTop());
+        }
+    }
+
+    /**
+     * Once enough records are logged, the log is rewritten with the best ones only.
+     */
+    @Test
+    public void compactsToBestRecords() throws IOException {
+        Path path = this.directory.resolve("scores.log");
+        // compacted on the last of them
+        List<ScoreRecord> records = records(ScoreLog.DEFAULT_CAPACITY * 256);
+        write(path, records);
+        assertEquals(HEADER_SIZE + ScoreLog.DEFAULT_CAPACITY * RECORD_SIZE, Files.size(path));
+        assertTrue(Files.notExists(this.directory.resolve("scores.log.tmp")));
+        ScoreRecord later = new ScoreRecord("p", 0, 0);
+        try(ScoreLog log = new ScoreLog(path)){
+            assertEquals(best(records), log.getTop());
+            log.append(later);
+        }
+        assertEquals(HEADER_SIZE + (ScoreLog.DEFAULT_CAPACITY + 1) * RECORD_SIZE, Files.size(path));
+    }
+
+    /**
+     * A compaction failing to write the new log leaves the old one open, and later records are still appended to it.
+     */
+    @Test
+    public void keepsLoggingWhenCompactionFails() throws IOException {
+        Path path = this.directory.resolve("scores.log");
+        // a directory in the way of the new log, which cannot be deleted either
+        Path temporary = Files.createDirectory(this.directory.resolve("scores.log.tmp"));
+        Files.createFile(temporary.resolve("file"));
+        List<ScoreRecord> records = records(ScoreLog.DEFAULT_CAPACITY * 256 + 5);
+        write(path, records);
+        assertEquals(HEADER_SIZE + (long) records.size() * RECORD_SIZE, Files.size(path));
+        try(ScoreLog log = new ScoreLog(path)){
+            assertEquals(best(records), log.getTop());
+        }
+    }
+}
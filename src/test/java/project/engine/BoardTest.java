@@ -0,0 +1,65 @@
+package project.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class BoardTest {
+	// single tile pieces, one per color
+	private static final PieceShapes TILES = new PieceShapes(new byte[][][]{{{Tile.T}}, {{Tile.I}}, {{Tile.SQUARE}}});
+
+	private static int place(Board board, int template, int x, int y){
+		return board.makeCurrentBoardArr(new Piece(TILES, template, 0, 0, x, y));
+	}
+
+	/**
+	 * Ring 4 of a 6x10 board has its columns off the board, so clearing it takes out its two rows only.
+	 */
+	@Test
+	public void clearsRingClippedBySides(){
+		Board board = new Board(6, 10);
+		// ring 3, inside the cleared ring, and ring 5, outside of it
+		place(board, 0, 0, 2);
+		place(board, 1, 3, 0);
+		int cleared = 0;
+		for(int x = 0; x < 6; x++){
+			cleared += place(board, 2, x, 1);
+			cleared += place(board, 2, x, 9);
+		}
+		assertEquals(1, cleared);
+		assertEquals(Tile.T, board.getTile(0, 2));
+		assertEquals(Tile.I, board.getTile(3, 1));
+		assertEquals(Tile.EMPTY, board.getTile(3, 0));
+		for(int x = 0; x < 6; x++){
+			assertEquals(x == 3 ? Tile.I : Tile.EMPTY, board.getTile(x, 1));
+			assertEquals(Tile.EMPTY, board.getTile(x, 9));
+		}
+		assertEquals(3, board.getTileCount());
+		assertEquals(1, board.getRingCount(3));
+		assertEquals(1, board.getRingCount(4));
+	}
+
+	/**
+	 * Ring 3 of a 6x6 board has its right column off the board, so clearing it leaves the rightmost column in place.
+	 */
+	@Test
+	public void clearsRingClippedOnOneSide(){
+		Board board = new Board(6, 6);
+		place(board, 0, 5, 3);
+		int cleared = 0;
+		for(int i = 0; i < 6; i++){
+			cleared += place(board, 2, i, 0);
+			if(i > 0){
+				cleared += place(board, 2, 0, i);
+			}
+		}
+		assertEquals(1, cleared);
+		assertEquals(Tile.T, board.getTile(5, 3));
+		for(int i = 0; i < 6; i++){
+			assertEquals(Tile.EMPTY, board.getTile(i, 0));
+			assertEquals(Tile.EMPTY, board.getTile(0, i));
+		}
+		assertEquals(2, board.getTileCount());
+		assertEquals(1, board.getRingCount(2));
+	}
+}
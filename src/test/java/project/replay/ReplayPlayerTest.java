@@ -0,0 +1,90 @@
+package project.replay;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import project.engine.Action;
+import project.engine.Engine;
+import project.engine.Snapshot;
+import project.sim.BatchRunner;
+import project.sim.PlacementStrategy;
+
+public class ReplayPlayerTest {
+	/**
+	 * A recorded game, and the state of the game at every tick, once the inputs of the tick are applied.
+	 */
+	private record Recording(Replay replay, List<byte[]> states) {}
+
+	/**
+	 * Records a seeded game of the placement strategy, long enough to pass a keyframe and played until it is lost.
+	 */
+	private static Recording record(){
+		Engine engine = new Engine(20, 20, 7);
+		ReplayRecorder recorder = new ReplayRecorder(engine);
+		PlacementStrategy strategy = new PlacementStrategy(false);
+		List<byte[]> states = new ArrayList<>();
+		int inputs = 0;
+		while(!engine.isLost()){
+			Action action = inputs < BatchRunner.MAX_INPUTS_PER_TICK ? strategy.act(engine) : Action.TICK;
+			if(action == null || action == Action.TICK){
+				states.add(Snapshot.write(engine));
+				action = Action.TICK;
+				inputs = 0;
+			}else{
+				inputs++;
+			}
+			recorder.step(action);
+		}
+		states.add(Snapshot.write(engine));
+		return new Recording(recorder.toReplay(), states);
+	}
+
+	private static Replay roundTrip(Replay replay) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		replay.write(out);
+		return Replay.read(new ByteArrayInputStream(out.toByteArray()));
+	}
+
+	@Test
+	public void playsBackRecordedGame() throws IOException {
+		Recording recording = record();
+		Replay replay = roundTrip(recording.replay());
+		assertEquals(recording.states().size() - 1, replay.getLength());
+		assertTrue(replay.getLength() > ReplayPlayer.KEYFRAME_INTERVAL);
+		ReplayPlayer player = new ReplayPlayer(replay);
+		assertArrayEquals(recording.states().get(0), Snapshot.write(player.getEngine()));
+		player.playToEnd();
+		assertTrue(player.isFinished());
+		assertTrue(player.getEngine().isLost());
+		assertArrayEquals(recording.states().get((int) replay.getLength()), Snapshot.write(player.getEngine()));
+	}
+
+	/**
+	 * Seeking either way, from keyframes or from the current tick, lands on the state the game was in at the tick.
+	 */
+	@Test
+	public void seeksToRecordedStates() throws IOException {
+		Recording recording = record();
+		Replay replay = roundTrip(recording.replay());
+		long length = replay.getLength();
+		long keyframe = ReplayPlayer.KEYFRAME_INTERVAL;
+		ReplayPlayer player = new ReplayPlayer(replay);
+		for(long tick : new long[]{keyframe + 100, 100, keyframe + 1, keyframe, keyframe - 1, 0, length - 1, length, 5, length + 1000}){
+			player.seek(tick);
+			long expected = Math.min(tick, length);
+			assertEquals(expected, player.getTick());
+			assertArrayEquals(recording.states().get((int) expected), Snapshot.write(player.getEngine()), "seek to " + tick);
+		}
+		assertTrue(player.isFinished());
+		player.seek(3);
+		player.advance(keyframe);
+		assertArrayEquals(recording.states().get((int) keyframe + 3), Snapshot.write(player.getEngine()));
+	}
+}
@@ -0,0 +1,70 @@
+package project.replay;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import project.engine.Action;
+import project.engine.PieceGenerator;
+
+public class ReplayTest {
+	private static final Replay REPLAY = new Replay(-42, PieceGenerator.Mode.UNIFORM, 30, 20,
+			new long[]{0, 0, 5, 300}, new Action[]{Action.LEFT, Action.ROTATE, Action.HARD_DROP, Action.UP}, 1000);
+
+	private static byte[] bytes(Replay replay) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		replay.write(out);
+		return out.toByteArray();
+	}
+
+	private static Replay read(byte[] bytes) throws IOException {
+		return Replay.read(new ByteArrayInputStream(bytes));
+	}
+
+	@Test
+	public void readsWrittenReplay() throws IOException {
+		Replay replay = read(bytes(REPLAY));
+		assertEquals(-42, replay.getSeed());
+		assertEquals(PieceGenerator.Mode.UNIFORM, replay.getMode());
+		assertEquals(30, replay.getGridWidth());
+		assertEquals(20, replay.getGridHeight());
+		assertEquals(1000, replay.getLength());
+		assertEquals(REPLAY.getInputCount(), replay.getInputCount());
+		for(int i = 0; i < replay.getInputCount(); i++){
+			assertEquals(REPLAY.getTick(i), replay.getTick(i));
+			assertEquals(REPLAY.getAction(i), replay.getAction(i));
+		}
+	}
+
+	@Test
+	public void rejectsBadMagic() throws IOException {
+		byte[] bytes = bytes(REPLAY);
+		bytes[0] ^= 1;
+		assertEquals("Not a replay.", assertThrows(IOException.class, () -> read(bytes)).getMessage());
+	}
+
+	@Test
+	public void rejectsBadVersion() throws IOException {
+		byte[] bytes = bytes(REPLAY);
+		bytes[Integer.BYTES] = Replay.VERSION + 1;
+		assertThrows(IOException.class, () -> read(bytes));
+		bytes[Integer.BYTES] = 1;
+		assertThrows(IOException.class, () -> read(bytes));
+	}
+
+	/**
+	 * Every cut short replay is rejected, wherever it was cut.
+	 */
+	@Test
+	public void rejectsTruncatedReplay() throws IOException {
+		byte[] bytes = bytes(REPLAY);
+		for(int length = 0; length < bytes.length; length++){
+			byte[] truncated = Arrays.copyOf(bytes, length);
+			assertThrows(IOException.class, () -> read(truncated), "cut to " + length + " bytes");
+		}
+	}
+}